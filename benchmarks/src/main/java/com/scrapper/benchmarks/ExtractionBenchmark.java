@@ -0,0 +1,89 @@
+package com.scrapper.benchmarks;
+
+import com.scrapper.extract.EmbeddedStateExtractor;
+import com.scrapper.extract.ProductExtractor;
+import com.scrapper.model.Product;
+import com.scrapper.util.ScraperUtility;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field extraction from an already parsed listing page: the per-field selector helpers in
+ * {@link ScraperUtility}, the single-pass {@link ProductExtractor} and the embedded state
+ * JSON, plus the cost of building the {@link Product} itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+    private Document doc;
+    private final ProductExtractor productExtractor = new ProductExtractor();
+    private final EmbeddedStateExtractor embeddedStateExtractor = new EmbeddedStateExtractor();
+
+    @Setup
+    public void setUp() {
+        doc = Jsoup.parse(new String(Fixtures.load("listing.html"), StandardCharsets.UTF_8), Fixtures.LISTING_URL);
+    }
+
+    @Benchmark
+    public String titleWithGetElementText() {
+        return ScraperUtility.getElementText(doc, "h1.listing__title-container");
+    }
+
+    @Benchmark
+    public List<String> imagesWithGetImageUrls() {
+        return ScraperUtility.getImageUrls(doc);
+    }
+
+    // Every field the way the scraper read them before the single-pass extractor
+    @Benchmark
+    public Product allFieldsWithUtilitySelectors() {
+        return Product.builder()
+                .productId(ScraperUtility.extractProductIdFromUrl(Fixtures.LISTING_URL))
+                .productTitle(ScraperUtility.getElementText(doc, "h1.listing__title-container"))
+                .brandName(ScraperUtility.getElementText(doc, "a.listing__brand"))
+                .price(ScraperUtility.getElementText(doc, "span.m--l--2"))
+                .discountedPrice(ScraperUtility.getElementText(doc, "p.h1").split(" ")[0])
+                .size(ScraperUtility.getElementText(doc, "button.size-selector__size-option"))
+                .colors(ScraperUtility.getListElementText(doc, "div.m--r--7:nth-child(2) > div"))
+                .description(ScraperUtility.getElementText(doc, "div.listing__description"))
+                .categories(ScraperUtility.getListElementText(doc, "div.m--r--7:nth-child(1) > div"))
+                .productUrl(Fixtures.LISTING_URL)
+                .imageUrls(ScraperUtility.getImageUrls(doc))
+                .sellerUsername(ScraperUtility.getElementText(doc, ".listing__header-container .d--fl > .d--fl a"))
+                .listingDate(ScraperUtility.getElementText(doc, ".timestamp"))
+                .build();
+    }
+
+    @Benchmark
+    public Product allFieldsSinglePass() {
+        return productExtractor.extract(doc, Fixtures.LISTING_URL);
+    }
+
+    @Benchmark
+    public Product allFieldsFromEmbeddedState() {
+        return embeddedStateExtractor.extract(doc, Fixtures.LISTING_URL);
+    }
+
+    @Benchmark
+    public Product buildProduct() {
+        return Fixtures.products(1).get(0);
+    }
+}
@@ -0,0 +1,61 @@
+package com.scrapper.benchmarks;
+
+import com.scrapper.model.Product;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saved pages and generated products shared by the benchmarks.
+ */
+final class Fixtures {
+    static final String LISTING_URL =
+            "https://poshmark.com/listing/Lululemon-winder-train-ribbed-leggings-687eea51bd4ce30d24103ddf";
+    static final String CLOSET_URL = "https://poshmark.com/closet/speechypies";
+
+    private Fixtures() {
+    }
+
+    // Raw bytes of a fixture under /fixtures on the classpath
+    static byte[] load(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Products shaped like real listings, with distinct IDs and a few list fields each
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = "Lululemon-winder-train-ribbed-leggings-" + String.format("%024x", i);
+            products.add(Product.builder()
+                    .productId(id)
+                    .productTitle("Lululemon winder train ribbed leggings " + i)
+                    .brandName("lululemon athletica")
+                    .price("$118")
+                    .discountedPrice("$" + (20 + i % 80))
+                    .size(String.valueOf(2 + i % 10))
+                    .colors(List.of("Black", "Gray"))
+                    .categories(List.of("Women", "Pants & Jumpsuits", "Leggings"))
+                    .description("Lululemon winder train ribbed leggings, \"excellent\" gently used condition, size "
+                            + (2 + i % 10))
+                    .productUrl("https://poshmark.com/listing/" + id)
+                    .imageUrls(List.of(
+                            "https://di2ponv0v5otw.cloudfront.net/posts/2025/07/21/" + id + "/m_1.jpg",
+                            "https://di2ponv0v5otw.cloudfront.net/posts/2025/07/21/" + id + "/m_2.jpg",
+                            "https://di2ponv0v5otw.cloudfront.net/posts/2025/07/21/" + id + "/m_3.jpg"))
+                    .sellerUsername("speechypies")
+                    .listingDate("Updated a minute ago")
+                    .build());
+        }
+        return products;
+    }
+}
@@ -0,0 +1,70 @@
+package com.scrapper.benchmarks;
+
+import com.scrapper.model.Product;
+import com.scrapper.util.FileUtil;
+import com.scrapper.util.ProductWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a whole run's products through {@link FileUtil}'s streaming writers, for each
+ * output format and run size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OutputBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int productCount;
+
+    @Param({"json", "ndjson", "csv", "bin"})
+    public String format;
+
+    private List<Product> products;
+    private Path directory;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        products = Fixtures.products(productCount);
+        directory = Files.createTempDirectory("poshmark-bench");
+        output = directory.resolve("products." + format);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long writeProducts() throws IOException {
+        try (ProductWriter writer = FileUtil.openProductWriter(format, Fixtures.CLOSET_URL, output)) {
+            for (Product product : products) {
+                writer.write(product);
+            }
+            writer.finish(1.0);
+            return writer.getCount();
+        }
+    }
+}
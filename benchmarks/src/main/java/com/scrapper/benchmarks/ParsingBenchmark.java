@@ -0,0 +1,84 @@
+package com.scrapper.benchmarks;
+
+import com.scrapper.extract.EmbeddedStateExtractor;
+import com.scrapper.extract.StreamingProductExtractor;
+import com.scrapper.fetch.ClosetFeed;
+import com.scrapper.fetch.PageResponse;
+import com.scrapper.model.ListingTile;
+import com.scrapper.model.Product;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning fetched bytes into something the extractors can read: a full Jsoup
+ * document for listing and closet pages, and the streaming extraction path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+    private byte[] listing;
+    private byte[] closet;
+    private PageResponse listingResponse;
+    private StreamingProductExtractor streamingSelectors;
+    private StreamingProductExtractor streamingWithState;
+
+    @Setup
+    public void setUp() {
+        listing = Fixtures.load("listing.html");
+        closet = Fixtures.load("closet.html");
+        listingResponse = PageResponse.builder()
+                .url(Fixtures.LISTING_URL)
+                .statusCode(200)
+                .body(listing)
+                .headers(Map.of("content-type", "text/html; charset=utf-8"))
+                .build();
+        streamingSelectors = new StreamingProductExtractor(null);
+        streamingWithState = new StreamingProductExtractor(new EmbeddedStateExtractor());
+    }
+
+    @Benchmark
+    public Document parseListing() throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(listing), "UTF-8", Fixtures.LISTING_URL);
+    }
+
+    @Benchmark
+    public Document parseCloset() throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(closet), "UTF-8", Fixtures.CLOSET_URL);
+    }
+
+    // Tiles the way the HTTP closet feed reads each page
+    @Benchmark
+    public List<ListingTile> parseClosetTiles() throws IOException {
+        return ClosetFeed.parseTiles(Jsoup.parse(new ByteArrayInputStream(closet), "UTF-8", Fixtures.CLOSET_URL));
+    }
+
+    @Benchmark
+    public Product streamListingSelectors() {
+        return streamingSelectors.extract(listingResponse, Fixtures.LISTING_URL);
+    }
+
+    @Benchmark
+    public Product streamListingEmbeddedState() {
+        return streamingWithState.extract(listingResponse, Fixtures.LISTING_URL);
+    }
+}
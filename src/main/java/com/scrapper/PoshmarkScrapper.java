@@ -1,10 +1,19 @@
 package com.scrapper;
 
-import com.scrapper.model.Product;
+import com.scrapper.config.ScraperSettings;
+import com.scrapper.query.QueryCommand;
+import com.scrapper.server.ScrapeServer;
+import com.scrapper.service.impl.BatchScraper;
 import com.scrapper.service.impl.PoshmarkScraperImpl;
+import com.scrapper.store.ListingIndex;
+import com.scrapper.store.ScrapeJournal;
 import com.scrapper.util.FileUtil;
+import com.scrapper.util.ProductWriter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 import java.util.Set;
@@ -18,6 +27,43 @@ public class PoshmarkScrapper {
     private static final boolean DEFAULT_HEADLESS = true;
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("query")) {
+            QueryCommand.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Options start with "--"; everything else is a positional argument
+        ScraperSettings settings = ScraperSettings.fromSystemProperties();
+        List<String> positional = new ArrayList<>();
+        Path batchFile = null;
+        boolean serve = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--delta" -> settings = settings.toBuilder().delta(true).build();
+                case "--resume" -> settings = settings.toBuilder().resume(true).build();
+                case "--serve" -> serve = true;
+                case "--batch" -> {
+                    if (i + 1 >= args.length) {
+                        log.error("--batch requires a file of closet URLs");
+                        System.exit(1);
+                    }
+                    batchFile = Path.of(args[++i]);
+                }
+                default -> positional.add(args[i]);
+            }
+        }
+        args = positional.toArray(new String[0]);
+
+        if (serve) {
+            runServer(args, settings);
+            return;
+        }
+
+        if (batchFile != null) {
+            runBatch(batchFile, args, settings);
+            return;
+        }
+
         String closetUrl;
         int productCount;
         String fileFormat;
@@ -68,7 +114,7 @@ public class PoshmarkScrapper {
         }
 
         // Validate file format
-        if (!List.of("json", "csv").contains(fileFormat)) {
+        if (!FileUtil.SUPPORTED_FORMATS.contains(fileFormat)) {
             log.error("Invalid file format: {}. Using default: {}", fileFormat, DEFAULT_FILE_FORMAT);
             fileFormat = DEFAULT_FILE_FORMAT;
         }
@@ -79,26 +125,97 @@ public class PoshmarkScrapper {
         log.info("Output Format: {}", fileFormat);
         log.info("Headless Mode: {}", headless ? "Enabled" : "Disabled");
 
+        log.info("Fetch Backend: {}", settings.getFetchBackend());
+        log.info("Delta Mode: {}", settings.isDelta() ? "Enabled" : "Disabled");
+        log.info("Resume Mode: {}", settings.isResume() ? "Enabled" : "Disabled");
+
         // create a new instance of PoshmarkScraper with the provided settings
-        try (PoshmarkScraperImpl service = new PoshmarkScraperImpl(headless)) {
+        try (PoshmarkScraperImpl service = new PoshmarkScraperImpl(headless, settings);
+             ScrapeJournal journal = ScrapeJournal.open(Path.of(settings.getJournalDir()), closetUrl,
+                     settings.isResume(), settings.getJournalBatchSize());
+             ProductWriter writer = FileUtil.openProductWriter(fileFormat, closetUrl)) {
             double startTime = System.currentTimeMillis();
+            service.setJournal(journal);
 
-            log.info("Fetching product URLs...");
-            Set<String> productUrls = service.getProductUrls(closetUrl, productCount);
-            log.info("Extracted {} links from Poshmark", productUrls.size());
+            // Products are written to the output file as soon as they are scraped
+            if (settings.isResume() && journal.isListingComplete()) {
+                log.info("Resuming from journal: {} products already completed, {} failed ones retried first",
+                        journal.getCompletedCount(), journal.getFailedCount());
+                service.scrapeWithJsoup(journal.getQueuedUrls(), writer);
+            } else if (settings.isDelta()) {
+                log.info("Fetching new and changed products in delta mode...");
+                ListingIndex index = ListingIndex.open(Path.of(settings.getIndexDir()), closetUrl);
+                service.scrapeDelta(closetUrl, productCount, index, writer);
+            } else if (settings.isPipeline()) {
+                log.info("Fetching product URLs and details in pipelined mode...");
+                service.scrapePipelined(closetUrl, productCount, writer);
+            } else {
+                log.info("Fetching product URLs...");
+                Set<String> productUrls = service.getProductUrls(closetUrl, productCount);
+                log.info("Extracted {} links from Poshmark", productUrls.size());
 
-            log.info("Scraping product details...");
-            List<Product> products = service.scrapeWithJsoup(productUrls);
-            log.info("Successfully scraped {} products", products.size());
+                log.info("Scraping product details...");
+                service.scrapeWithJsoup(productUrls, writer);
+            }
+            log.info("Successfully scraped {} products", writer.getCount());
             double exceptionTimeSeconds = (System.currentTimeMillis() - startTime) / 1000.0;
             log.info("Total execution time: {} seconds",
                     (System.currentTimeMillis() - startTime) / 1000.0);
-            String outputPath = FileUtil.saveResultsToFile(products, fileFormat, exceptionTimeSeconds, closetUrl);
-            log.info("Results saved to: {}", outputPath);
+            writer.finish(exceptionTimeSeconds);
+            log.info("Results saved to: {}", writer.getPath().toAbsolutePath());
+            journal.delete();
 
         } catch (Exception e) {
             log.error("An error occurred during scraping: {}", e.getMessage());
             System.exit(1);
         }
     }
+
+    // Server mode: the only positional argument is the headless flag
+    private static void runServer(String[] args, ScraperSettings settings) {
+        boolean headless = args.length > 0 ? Boolean.parseBoolean(args[0]) : DEFAULT_HEADLESS;
+        try (ScrapeServer server = ScrapeServer.start(settings, headless)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "scrape-server-shutdown"));
+            server.awaitTermination();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("An error occurred in server mode: {}", e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Batch mode: positional arguments are [product count] [file format] [headless]
+    private static void runBatch(Path batchFile, String[] args, ScraperSettings settings) {
+        int productCount = DEFAULT_PRODUCT_COUNT;
+        String fileFormat = DEFAULT_FILE_FORMAT;
+        boolean headless = DEFAULT_HEADLESS;
+        try {
+            if (args.length > 0) {
+                productCount = Integer.parseInt(args[0]);
+            }
+            if (args.length > 1) {
+                fileFormat = args[1].toLowerCase();
+            }
+            if (args.length > 2) {
+                headless = Boolean.parseBoolean(args[2]);
+            }
+        } catch (NumberFormatException e) {
+            log.error("Invalid product count: {}. Using default: {}", args[0], DEFAULT_PRODUCT_COUNT);
+        }
+        if (!FileUtil.SUPPORTED_FORMATS.contains(fileFormat)) {
+            log.error("Invalid file format: {}. Using default: {}", fileFormat, DEFAULT_FILE_FORMAT);
+            fileFormat = DEFAULT_FILE_FORMAT;
+        }
+
+        try (PoshmarkScraperImpl service = new PoshmarkScraperImpl(headless, settings)) {
+            List<BatchScraper.ClosetJob> jobs = BatchScraper.readJobs(batchFile, productCount);
+            log.info("Starting batch of {} closets from {} (format: {}, max {} fetches per closet, {} overall)",
+                    jobs.size(), batchFile, fileFormat, settings.getMaxInFlightPerCloset(), settings.getMaxInFlight());
+            new BatchScraper(service, settings).run(jobs, fileFormat);
+        } catch (Exception e) {
+            log.error("An error occurred during batch scraping: {}", e.getMessage());
+            System.exit(1);
+        }
+    }
 }
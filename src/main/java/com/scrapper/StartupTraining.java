@@ -0,0 +1,81 @@
+package com.scrapper;
+
+import com.scrapper.config.ScraperSettings;
+import com.scrapper.extract.EmbeddedStateExtractor;
+import com.scrapper.extract.ProductExtractor;
+import com.scrapper.fetch.ClosetFeed;
+import com.scrapper.model.ListingTile;
+import com.scrapper.model.Product;
+import com.scrapper.query.ProductIndex;
+import com.scrapper.query.ProductQuery;
+import com.scrapper.service.impl.PoshmarkScraperImpl;
+import com.scrapper.util.FileUtil;
+import com.scrapper.util.ProductWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Training run for the AppCDS archive built by the {@code appcds} profile. It walks the
+ * startup path of a scrape without touching the network or launching a browser: settings,
+ * the scraper and its fetch engine, closet and listing parsing, every output format and
+ * the query index. Every class it loads is stored in the archive.
+ */
+@Slf4j
+public class StartupTraining {
+    private static final String CLOSET_URL = "https://poshmark.com/closet/training";
+    private static final String CLOSET_PAGE = """
+            <div class="tiles_container"><div>
+              <div class="card card--small"><a href="/listing/training-tile-1"></a></div>
+              <a class="tile__title">Training tile</a><span class="p--t--1 fw--bold">$20</span>
+              <a class="tile__details__pipe__size">Size: M</a>
+            </div></div>
+            """;
+    private static final String LISTING_PAGE = """
+            <h1 class="listing__title-container">Training listing</h1>
+            <a class="listing__brand">Training Brand</a>
+            <p class="h1">$18 $25</p><span class="m--l--2">$25</span>
+            <button class="size-selector__size-option">M</button>
+            <div class="listing__description">Used only to train the class data archive.</div>
+            <ul class="carousel-vertical__inner"><li><img src="https://example.com/training.jpg"></li></ul>
+            """;
+
+    public static void main(String[] args) throws IOException {
+        ScraperSettings settings = ScraperSettings.fromSystemProperties();
+        PoshmarkScraperImpl service = new PoshmarkScraperImpl(true, settings);
+        log.info("Training with the {} fetch backend", settings.getFetchBackend());
+        service.close();
+
+        List<ListingTile> tiles = ClosetFeed.parseTiles(Jsoup.parse(CLOSET_PAGE, CLOSET_URL));
+        String productUrl = tiles.get(0).getProductUrl();
+        Product product = new ProductExtractor().extract(Jsoup.parse(LISTING_PAGE, productUrl), productUrl);
+        new EmbeddedStateExtractor().extract(Jsoup.parse(LISTING_PAGE, productUrl), productUrl);
+
+        Path dir = Files.createTempDirectory("poshmark-training");
+        try {
+            List<Path> files = new ArrayList<>();
+            for (String format : FileUtil.SUPPORTED_FORMATS) {
+                Path file = dir.resolve("training." + format);
+                try (ProductWriter writer = FileUtil.openProductWriter(format, CLOSET_URL, file)) {
+                    writer.write(product);
+                    writer.finish(0);
+                }
+                files.add(file);
+            }
+            ProductIndex index = ProductIndex.load(files);
+            int matches = index.count(ProductQuery.builder().brand("training*").maxPrice("$50").build());
+            log.info("Trained on {} tiles and {} products ({} matched)", tiles.size(), index.size(), matches);
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.scrapper.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Memory-maps a catalog written by {@link CatalogWriter}. Opening only reads the footer,
+ * the metadata and the string dictionary; records stay in the mapping and are read field
+ * by field through {@link CatalogRecord} views, so scans and lookups never build a
+ * {@code Product} unless asked to. Lookups by product ID binary-search the sorted index.
+ * A reader is safe to share between threads.
+ */
+@Slf4j
+public class CatalogReader implements AutoCloseable, Iterable<CatalogRecord> {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final LongBuffer index;
+    private final String[] dictionary;
+    private final int count;
+    private final long recordsEnd;
+    private final String sourceUrl;
+    private final Instant scrapeDate;
+    private final double executionTimeSeconds;
+
+    private CatalogReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long fileSize = channel.size();
+        if (fileSize > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Catalog " + path + " is larger than 2 GB; split the run into several catalogs");
+        }
+        if (fileSize < CatalogWriter.HEADER_BYTES + CatalogWriter.FOOTER_BYTES) {
+            channel.close();
+            throw new IOException("Catalog " + path + " is truncated");
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        int footer = (int) fileSize - CatalogWriter.FOOTER_BYTES;
+        if (buffer.getLong(0) != CatalogWriter.MAGIC || buffer.getLong(footer + 28) != CatalogWriter.MAGIC) {
+            channel.close();
+            throw new IOException("Not a complete catalog: " + path);
+        }
+        if (buffer.getInt(8) != CatalogWriter.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported catalog version " + buffer.getInt(8) + " in " + path);
+        }
+        int dictionaryOffset = (int) buffer.getLong(footer);
+        int indexOffset = (int) buffer.getLong(footer + 8);
+        int metadataOffset = (int) buffer.getLong(footer + 16);
+        this.count = buffer.getInt(footer + 24);
+        this.recordsEnd = dictionaryOffset;
+
+        int entries = buffer.getInt(dictionaryOffset);
+        this.dictionary = new String[entries];
+        int position = dictionaryOffset + 4;
+        for (int i = 0; i < entries; i++) {
+            int length = buffer.getInt(position);
+            dictionary[i] = string(position + 4, length);
+            position += 4 + length;
+        }
+
+        this.index = buffer.slice(indexOffset, count * 8).asLongBuffer();
+
+        byte[] metadata = new byte[footer - metadataOffset];
+        buffer.get(metadataOffset, metadata);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(metadata))) {
+            String source = in.readUTF();
+            this.sourceUrl = source.isEmpty() ? null : source;
+            this.scrapeDate = Instant.ofEpochMilli(in.readLong());
+            this.executionTimeSeconds = in.readDouble();
+        }
+    }
+
+    public static CatalogReader open(Path path) throws IOException {
+        long start = System.nanoTime();
+        CatalogReader reader = new CatalogReader(path);
+        log.debug("Opened catalog {} with {} products and {} dictionary entries in {} µs", path, reader.count,
+                reader.dictionary.length, (System.nanoTime() - start) / 1000);
+        return reader;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Record at the given rank in product ID order
+    public CatalogRecord get(int rank) {
+        return new CatalogRecord(this, (int) index.get(rank));
+    }
+
+    // Record with the given product ID, or null
+    public CatalogRecord find(String productId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            CatalogRecord record = get(mid);
+            int comparison = record.productId().compareTo(productId);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    // Records in the order they were written
+    @Override
+    public Iterator<CatalogRecord> iterator() {
+        return new Iterator<>() {
+            private int offset = CatalogWriter.HEADER_BYTES;
+
+            @Override
+            public boolean hasNext() {
+                return offset < recordsEnd;
+            }
+
+            @Override
+            public CatalogRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                CatalogRecord record = new CatalogRecord(CatalogReader.this, offset);
+                offset += 4 + buffer.getInt(offset);
+                return record;
+            }
+        };
+    }
+
+    public String dictionaryValue(int id) {
+        return id == StringDictionary.NONE ? null : dictionary[id];
+    }
+
+    // Dictionary id of a value, or NONE if no product uses it; lets filters compare ints instead of strings
+    public int dictionaryId(String value) {
+        for (int i = 0; i < dictionary.length; i++) {
+            if (dictionary[i].equals(value)) {
+                return i;
+            }
+        }
+        return StringDictionary.NONE;
+    }
+
+    public String getSourceUrl() {
+        return sourceUrl;
+    }
+
+    public Instant getScrapeDate() {
+        return scrapeDate;
+    }
+
+    public double getExecutionTimeSeconds() {
+        return executionTimeSeconds;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    String string(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,174 @@
+package com.scrapper.catalog;
+
+import com.scrapper.model.Product;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * View of one product inside a mapped catalog. Nothing is decoded up front: the dictionary
+ * ids and prices are read from fixed positions, and each string field is decoded only when
+ * its accessor is called. Views are cheap to create and hold no copy of the record.
+ */
+public final class CatalogRecord {
+    // Order of the variable-length fields after the fixed part
+    private static final int PRODUCT_ID = 0;
+    private static final int TITLE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int URL = 3;
+    private static final int LISTING_DATE = 4;
+    private static final int COLORS = 5;
+    private static final int CATEGORIES = 6;
+    private static final int IMAGES = 7;
+
+    private final CatalogReader reader;
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    CatalogRecord(CatalogReader reader, int offset) {
+        this.reader = reader;
+        this.buffer = reader.buffer();
+        this.offset = offset;
+    }
+
+    public int brandId() {
+        return buffer.getInt(offset + 4);
+    }
+
+    public int sizeId() {
+        return buffer.getInt(offset + 8);
+    }
+
+    public int sellerId() {
+        return buffer.getInt(offset + 12);
+    }
+
+    public int priceCents() {
+        return buffer.getInt(offset + 16);
+    }
+
+    public int discountedPriceCents() {
+        return buffer.getInt(offset + 20);
+    }
+
+    public String brand() {
+        return reader.dictionaryValue(brandId());
+    }
+
+    public String size() {
+        return reader.dictionaryValue(sizeId());
+    }
+
+    public String seller() {
+        return reader.dictionaryValue(sellerId());
+    }
+
+    public String productId() {
+        return stringAt(fieldStart(PRODUCT_ID));
+    }
+
+    public String title() {
+        return stringAt(fieldStart(TITLE));
+    }
+
+    public String description() {
+        return stringAt(fieldStart(DESCRIPTION));
+    }
+
+    public String productUrl() {
+        return stringAt(fieldStart(URL));
+    }
+
+    public String listingDate() {
+        return stringAt(fieldStart(LISTING_DATE));
+    }
+
+    public List<String> colors() {
+        return dictionaryList(fieldStart(COLORS));
+    }
+
+    public List<String> categories() {
+        return dictionaryList(fieldStart(CATEGORIES));
+    }
+
+    public List<String> imageUrls() {
+        int[] position = {fieldStart(IMAGES)};
+        int count = readVarInt(position);
+        List<String> urls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = readVarInt(position);
+            urls.add(reader.string(position[0], length));
+            position[0] += length;
+        }
+        return urls;
+    }
+
+    // Decode the whole record into today's Product
+    public Product toProduct() {
+        return Product.builder()
+                .productId(productId())
+                .productTitle(title())
+                .brandName(orEmpty(brand()))
+                .price(Prices.format(priceCents()))
+                .discountedPrice(Prices.format(discountedPriceCents()))
+                .size(orEmpty(size()))
+                .colors(colors())
+                .categories(categories())
+                .description(description())
+                .productUrl(productUrl())
+                .imageUrls(imageUrls())
+                .sellerUsername(orEmpty(seller()))
+                .listingDate(listingDate())
+                .build();
+    }
+
+    // Position of the given variable-length field, skipping the ones before it
+    private int fieldStart(int field) {
+        int[] position = {offset + 4 + CatalogWriter.FIXED_RECORD_BYTES};
+        for (int i = 0; i < field; i++) {
+            int length = readVarInt(position);
+            if (i == COLORS || i == CATEGORIES) {
+                // Lists of ids: skip one varint per element
+                for (int j = 0; j < length; j++) {
+                    readVarInt(position);
+                }
+            } else {
+                position[0] += length;
+            }
+        }
+        return position[0];
+    }
+
+    private String stringAt(int start) {
+        int[] position = {start};
+        int length = readVarInt(position);
+        return reader.string(position[0], length);
+    }
+
+    private List<String> dictionaryList(int start) {
+        int[] position = {start};
+        int count = readVarInt(position);
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(reader.dictionaryValue(readVarInt(position) - 1));
+        }
+        return values;
+    }
+
+    private int readVarInt(int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position[0]++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
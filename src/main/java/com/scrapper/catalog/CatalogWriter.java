@@ -0,0 +1,186 @@
+package com.scrapper.catalog;
+
+import com.scrapper.model.Product;
+import com.scrapper.util.ProductWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes products as a compact binary catalog that {@link CatalogReader} can memory-map.
+ * <pre>
+ * header    magic, version
+ * records   int length, then per product:
+ *           brand, size, seller (dictionary ids), price, discounted price (cents),
+ *           product id, title, description, URL, listing date (strings),
+ *           colors, categories (dictionary ids), image URLs (strings)
+ * dictionary  int count, strings
+ * index     record offsets sorted by product id
+ * metadata  source URL, scrape date, execution time
+ * footer    dictionary, index and metadata offsets, record count, magic
+ * </pre>
+ * Ints in the fixed part are 4 bytes big-endian; counts, lengths and ids after it are
+ * unsigned varints. Strings are UTF-8 with a varint length. Absent ids and prices are -1.
+ */
+public class CatalogWriter extends ProductWriter {
+    static final long MAGIC = 0x504D434154414C47L; // "PMCATALG"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 12;
+    static final int FIXED_RECORD_BYTES = 20;
+    static final int FOOTER_BYTES = 36;
+
+    private final DataOutputStream out;
+    private final String sourceUrl;
+    private final long scrapeDate = System.currentTimeMillis();
+    private final StringDictionary dictionary = new StringDictionary();
+    private final RecordEncoder record = new RecordEncoder();
+    private final List<IndexEntry> index = new ArrayList<>();
+    private long position;
+
+    private record IndexEntry(String productId, long offset) {
+    }
+
+    public CatalogWriter(Path path, String sourceUrl) throws IOException {
+        super(path);
+        this.sourceUrl = sourceUrl;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        out.writeLong(MAGIC);
+        out.writeInt(VERSION);
+        position = HEADER_BYTES;
+    }
+
+    @Override
+    protected void writeProduct(Product product) throws IOException {
+        record.reset();
+        record.putInt(dictionary.idOf(emptyToNull(product.getBrandName())));
+        record.putInt(dictionary.idOf(emptyToNull(product.getSize())));
+        record.putInt(dictionary.idOf(emptyToNull(product.getSellerUsername())));
+        record.putInt(Prices.toCents(product.getPrice()));
+        record.putInt(Prices.toCents(product.getDiscountedPrice()));
+        record.putString(product.getProductId());
+        record.putString(product.getProductTitle());
+        record.putString(product.getDescription());
+        record.putString(product.getProductUrl());
+        record.putString(product.getListingDate());
+        putIds(product.getColors());
+        putIds(product.getCategories());
+        List<String> images = product.getImageUrls() == null ? List.of() : product.getImageUrls();
+        record.putVarInt(images.size());
+        for (String image : images) {
+            record.putString(image);
+        }
+
+        index.add(new IndexEntry(product.getProductId() == null ? "" : product.getProductId(), position));
+        out.writeInt(record.size());
+        out.write(record.bytes(), 0, record.size());
+        position += 4 + record.size();
+    }
+
+    private void putIds(List<String> values) {
+        List<String> list = values == null ? List.of() : values;
+        record.putVarInt(list.size());
+        for (String value : list) {
+            // Shifted by one so the varint stays unsigned; 0 is null
+            record.putVarInt(dictionary.idOf(value) + 1);
+        }
+    }
+
+    @Override
+    protected void writeTrailer(double executionTimeSeconds) throws IOException {
+        long dictionaryOffset = position;
+        List<String> values = dictionary.values();
+        out.writeInt(values.size());
+        position += 4;
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            position += 4 + bytes.length;
+        }
+
+        long indexOffset = position;
+        index.sort(Comparator.comparing(IndexEntry::productId));
+        for (IndexEntry entry : index) {
+            out.writeLong(entry.offset());
+        }
+        position += 8L * index.size();
+
+        long metadataOffset = position;
+        out.writeUTF(sourceUrl == null ? "" : sourceUrl);
+        out.writeLong(scrapeDate);
+        out.writeDouble(executionTimeSeconds);
+
+        out.writeLong(dictionaryOffset);
+        out.writeLong(indexOffset);
+        out.writeLong(metadataOffset);
+        out.writeInt(index.size());
+        out.writeLong(MAGIC);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    // Growable buffer one record is encoded into before its length is known
+    private static class RecordEncoder {
+        private byte[] buffer = new byte[4096];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void putInt(int value) {
+            ensure(4);
+            buffer[size++] = (byte) (value >>> 24);
+            buffer[size++] = (byte) (value >>> 16);
+            buffer[size++] = (byte) (value >>> 8);
+            buffer[size++] = (byte) value;
+        }
+
+        void putVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void putString(String value) {
+            byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            putVarInt(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        byte[] bytes() {
+            return buffer;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.scrapper.catalog;
+
+import com.scrapper.model.Product;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Products of one run held in {@link CompactProduct} form. The catalog owns the string
+ * dictionary its products point into: brands, sizes, sellers, colors, category paths,
+ * relative listing dates and image URL prefixes are each stored once however many listings
+ * share them. Adding products is safe from many fetch threads.
+ */
+public class CompactCatalog {
+    static final String LISTING_URL_PREFIX = "https://poshmark.com/listing/";
+    // Joins the levels of a category path into one dictionary entry
+    static final char PATH_SEPARATOR = '\u001F';
+    // Separates the image URL suffixes of one listing; URLs never contain a newline
+    static final char IMAGE_SEPARATOR = '\n';
+
+    private final StringDictionary dictionary = new StringDictionary();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<CompactProduct> products = new ArrayList<>();
+
+    // Encode a product and keep it in the catalog
+    public CompactProduct add(Product product) {
+        CompactProduct compact = encode(product);
+        lock.lock();
+        try {
+            products.add(compact);
+        } finally {
+            lock.unlock();
+        }
+        return compact;
+    }
+
+    // Encode a product against this catalog's dictionary without keeping it
+    public CompactProduct encode(Product product) {
+        String productId = product.getProductId();
+        String url = product.getProductUrl();
+        // Most URLs are the listing prefix plus the ID, so only unusual ones are kept
+        String unusualUrl = url != null && url.equals(LISTING_URL_PREFIX + productId) ? null : url;
+
+        long listedAt = CompactProduct.NO_DATE;
+        int listingDateText = StringDictionary.NONE;
+        String listingDate = product.getListingDate();
+        if (listingDate != null && !listingDate.isEmpty()) {
+            listedAt = parseDate(listingDate);
+            if (listedAt == CompactProduct.NO_DATE) {
+                // Relative dates such as "Updated 7 mins ago" repeat across listings
+                listingDateText = dictionary.idOf(listingDate);
+            }
+        }
+
+        // Suffixes share one string so a listing pays the per-string overhead once
+        List<String> images = product.getImageUrls() == null ? List.of() : product.getImageUrls();
+        int[] imagePrefixes = new int[images.size()];
+        StringBuilder imageSuffixes = new StringBuilder();
+        for (int i = 0; i < images.size(); i++) {
+            String image = images.get(i) == null ? "" : images.get(i);
+            int split = prefixLength(image);
+            imagePrefixes[i] = dictionary.idOf(image.substring(0, split));
+            if (i > 0) {
+                imageSuffixes.append(IMAGE_SEPARATOR);
+            }
+            imageSuffixes.append(image, split, image.length());
+        }
+
+        return new CompactProduct(this, productId, product.getProductTitle(), product.getDescription(),
+                unusualUrl, idOf(product.getBrandName()), idOf(product.getSize()), idOf(product.getSellerUsername()),
+                Prices.toCents(product.getPrice()), Prices.toCents(product.getDiscountedPrice()),
+                ids(product.getColors()), idOf(categoryPath(product.getCategories())), listedAt, listingDateText,
+                imagePrefixes, imageSuffixes.toString());
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return products.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Snapshot of the products added so far
+    public List<CompactProduct> products() {
+        lock.lock();
+        try {
+            return List.copyOf(products);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    // Dictionary id of a category path, for matching against CompactProduct.categoryPathId()
+    public int categoryPathId(List<String> categories) {
+        return dictionary.find(categoryPath(categories));
+    }
+
+    String value(int id) {
+        return dictionary.valueOf(id);
+    }
+
+    private int idOf(String value) {
+        return dictionary.idOf(value == null || value.isEmpty() ? null : value);
+    }
+
+    private int[] ids(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return CompactProduct.NO_IDS;
+        }
+        int[] ids = new int[values.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = dictionary.idOf(values.get(i));
+        }
+        return ids;
+    }
+
+    // One dictionary entry for a whole category path
+    public static String categoryPath(List<String> categories) {
+        return categories == null || categories.isEmpty() ? null : String.join(String.valueOf(PATH_SEPARATOR), categories);
+    }
+
+    // Scheme, host and first path segment, e.g. "https://di2ponv0v5otw.cloudfront.net/posts/"
+    private static int prefixLength(String url) {
+        int scheme = url.indexOf("://");
+        int hostEnd = url.indexOf('/', scheme < 0 ? 0 : scheme + 3);
+        if (hostEnd < 0) {
+            return url.length();
+        }
+        int segmentEnd = url.indexOf('/', hostEnd + 1);
+        return segmentEnd < 0 ? hostEnd + 1 : segmentEnd + 1;
+    }
+
+    // Epoch millis of an ISO-8601 timestamp, or NO_DATE if the text is not one
+    private static long parseDate(String text) {
+        try {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            try {
+                return Instant.parse(text).toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                return CompactProduct.NO_DATE;
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.scrapper.catalog;
+
+import com.scrapper.model.Product;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Memory-compact form of a {@link Product}. Repeating values are ids into the owning
+ * {@link CompactCatalog}'s dictionary, the category path is a single id, prices are int
+ * cents, ISO listing dates are epoch millis, image URLs keep only what follows their shared
+ * CDN prefix, and the product URL is dropped when it is the standard listing URL.
+ * {@link #toProduct()} rebuilds today's model; ISO dates come back in UTC.
+ */
+public final class CompactProduct {
+    public static final long NO_DATE = Long.MIN_VALUE;
+    static final int[] NO_IDS = new int[0];
+
+    private final CompactCatalog catalog;
+    private final String productId;
+    private final String title;
+    private final String description;
+    private final String unusualUrl;
+    private final int brand;
+    private final int size;
+    private final int seller;
+    private final int priceCents;
+    private final int discountedPriceCents;
+    private final int[] colors;
+    private final int categoryPath;
+    private final long listedAt;
+    private final int listingDateText;
+    private final int[] imagePrefixes;
+    private final String imageSuffixes;
+
+    CompactProduct(CompactCatalog catalog, String productId, String title, String description, String unusualUrl,
+                   int brand, int size, int seller, int priceCents, int discountedPriceCents, int[] colors,
+                   int categoryPath, long listedAt, int listingDateText, int[] imagePrefixes, String imageSuffixes) {
+        this.catalog = catalog;
+        this.productId = productId;
+        this.title = title;
+        this.description = description;
+        this.unusualUrl = unusualUrl;
+        this.brand = brand;
+        this.size = size;
+        this.seller = seller;
+        this.priceCents = priceCents;
+        this.discountedPriceCents = discountedPriceCents;
+        this.colors = colors;
+        this.categoryPath = categoryPath;
+        this.listedAt = listedAt;
+        this.listingDateText = listingDateText;
+        this.imagePrefixes = imagePrefixes;
+        this.imageSuffixes = imageSuffixes;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public int getBrandId() {
+        return brand;
+    }
+
+    public int getSizeId() {
+        return size;
+    }
+
+    public int getSellerId() {
+        return seller;
+    }
+
+    public int[] getColorIds() {
+        return colors.clone();
+    }
+
+    public boolean hasColorId(int id) {
+        for (int color : colors) {
+            if (color == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getCategoryPathId() {
+        return categoryPath;
+    }
+
+    public int getPriceCents() {
+        return priceCents;
+    }
+
+    public int getDiscountedPriceCents() {
+        return discountedPriceCents;
+    }
+
+    // Epoch millis of the listing date, or NO_DATE if the page only gave a relative date
+    public long getListedAt() {
+        return listedAt;
+    }
+
+    public String getBrand() {
+        return catalog.value(brand);
+    }
+
+    public String getSize() {
+        return catalog.value(size);
+    }
+
+    public String getSeller() {
+        return catalog.value(seller);
+    }
+
+    public List<String> getCategories() {
+        String path = catalog.value(categoryPath);
+        return path == null ? List.of() : Arrays.asList(path.split(String.valueOf(CompactCatalog.PATH_SEPARATOR)));
+    }
+
+    public Product toProduct() {
+        List<String> colorNames = new ArrayList<>(colors.length);
+        for (int color : colors) {
+            colorNames.add(catalog.value(color));
+        }
+        List<String> images = new ArrayList<>(imagePrefixes.length);
+        int start = 0;
+        for (int prefix : imagePrefixes) {
+            int end = imageSuffixes.indexOf(CompactCatalog.IMAGE_SEPARATOR, start);
+            end = end < 0 ? imageSuffixes.length() : end;
+            images.add(catalog.value(prefix) + imageSuffixes.substring(start, end));
+            start = end + 1;
+        }
+        String listingDate = listedAt != NO_DATE ? Instant.ofEpochMilli(listedAt).toString()
+                : listingDateText != StringDictionary.NONE ? catalog.value(listingDateText) : "";
+        return Product.builder()
+                .productId(productId)
+                .productTitle(title)
+                .brandName(orEmpty(getBrand()))
+                .price(Prices.format(priceCents))
+                .discountedPrice(Prices.format(discountedPriceCents))
+                .size(orEmpty(getSize()))
+                .colors(colorNames)
+                .categories(getCategories())
+                .description(description)
+                .productUrl(unusualUrl != null ? unusualUrl : CompactCatalog.LISTING_URL_PREFIX + productId)
+                .imageUrls(images)
+                .sellerUsername(orEmpty(getSeller()))
+                .listingDate(listingDate)
+                .build();
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,63 @@
+package com.scrapper.catalog;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Locale;
+
+/**
+ * Converts between the price text shown on listings ("$118", "$12.50", "$1,200") and whole
+ * cents. Listings are priced in dollars, so formatting always uses the dollar sign.
+ */
+@UtilityClass
+public class Prices {
+    public static final int NO_PRICE = -1;
+
+    // Cents for the first amount in the text, or NO_PRICE if there is none
+    public static int toCents(String text) {
+        if (text == null) {
+            return NO_PRICE;
+        }
+        long cents = 0;
+        int fractionDigits = -1;
+        boolean digits = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (fractionDigits >= 2) {
+                    continue;
+                }
+                cents = cents * 10 + (c - '0');
+                digits = true;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c == ',' && fractionDigits < 0) {
+                continue;
+            } else if (digits) {
+                break;
+            }
+            if (cents > Integer.MAX_VALUE) {
+                return NO_PRICE;
+            }
+        }
+        if (!digits) {
+            return NO_PRICE;
+        }
+        for (int i = Math.max(0, fractionDigits); i < 2; i++) {
+            cents *= 10;
+        }
+        return cents > Integer.MAX_VALUE ? NO_PRICE : (int) cents;
+    }
+
+    // Price text the way listings show it, thousands separators included, or "" for NO_PRICE
+    public static String format(int cents) {
+        if (cents == NO_PRICE) {
+            return "";
+        }
+        return cents % 100 == 0
+                ? String.format(Locale.US, "$%,d", cents / 100)
+                : String.format(Locale.US, "$%,d.%02d", cents / 100, cents % 100);
+    }
+}
@@ -0,0 +1,82 @@
+package com.scrapper.catalog;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Assigns a dense int id to every distinct string, so values that repeat across a catalog
+ * (brands, sizes, categories, colors, sellers) are stored once and referenced by id.
+ * Lookups are lock-free; adding a new value takes a short lock. Id -1 stands for null.
+ */
+public final class StringDictionary {
+    public static final int NONE = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile String[] values = new String[64];
+    private volatile int size;
+
+    public StringDictionary() {
+    }
+
+    // Dictionary holding exactly the given values, with ids in list order
+    public StringDictionary(List<String> initialValues) {
+        for (String value : initialValues) {
+            idOf(value);
+        }
+    }
+
+    // Id of the value, adding it if it is new; null maps to NONE
+    public int idOf(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        lock.lock();
+        try {
+            id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            int next = size;
+            String[] current = values;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, next * 2);
+            }
+            current[next] = value;
+            // Publish the array before the size, so readers never see an id without its value
+            values = current;
+            size = next + 1;
+            ids.put(value, next);
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Id of the value if it is known, without adding it
+    public int find(String value) {
+        Integer id = value == null ? null : ids.get(value);
+        return id == null ? NONE : id;
+    }
+
+    public String valueOf(int id) {
+        return id == NONE ? null : values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Every value, in id order
+    public List<String> values() {
+        int count = size;
+        return Arrays.asList(Arrays.copyOf(values, count));
+    }
+}
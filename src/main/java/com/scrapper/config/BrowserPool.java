@@ -0,0 +1,206 @@
+package com.scrapper.config;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pool of browser pages that callers lease for exclusive use.
+ * Playwright for Java is not thread-safe: a Playwright instance and every Browser, context and
+ * Page it created must only be used by one thread at a time. Leasing contexts of one shared
+ * browser would put every render thread on the same Playwright connection and force all page
+ * calls through a single lock, so every slot owns its own Playwright, Browser, BrowserContext
+ * and Page instead, and only the thread holding the lease touches them. The price is one
+ * Chromium process per slot, bounded by {@code scraper.browserPoolSize}. Slots are created
+ * on first use, health-checked on every lease and get a fresh context (with a new user agent
+ * and viewport) after a configurable number of pages.
+ */
+@Slf4j
+public class BrowserPool implements AutoCloseable {
+    private final PlaywrightConfig playwrightConfig;
+    private final boolean headless;
+    private final int size;
+    private final int recycleAfter;
+    private final Semaphore available;
+    private final Queue<Slot> idle = new ConcurrentLinkedQueue<>();
+    private final List<Slot> slots = new CopyOnWriteArrayList<>();
+    private final AtomicInteger slotIds = new AtomicInteger();
+    private volatile boolean closed;
+
+    BrowserPool(PlaywrightConfig playwrightConfig, int size, boolean headless, int recycleAfter) {
+        this.playwrightConfig = playwrightConfig;
+        this.headless = headless;
+        this.size = Math.max(1, size);
+        this.recycleAfter = Math.max(1, recycleAfter);
+        this.available = new Semaphore(this.size, true);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Waits for a free slot and returns it leased to the calling thread.
+     * The lease must be closed to hand the slot back.
+     *
+     * @return lease on a healthy page
+     */
+    public Lease lease() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Browser pool is closed");
+        }
+        available.acquire();
+        Slot slot = idle.poll();
+        try {
+            if (slot == null) {
+                slot = new Slot(slotIds.incrementAndGet());
+                slots.add(slot);
+            }
+            slot.ensureHealthy();
+        } catch (RuntimeException e) {
+            if (slot != null) {
+                slots.remove(slot);
+                slot.close();
+            }
+            available.release();
+            throw e;
+        }
+        slot.leased = true;
+        return new Lease(slot);
+    }
+
+    private void giveBack(Slot slot, boolean broken) {
+        slot.leased = false;
+        if (closed) {
+            slot.close();
+            available.release();
+            return;
+        }
+        if (broken) {
+            log.debug("Browser slot {} reported broken; resetting its context", slot.id);
+            slot.closeContext();
+        } else if (slot.pagesServed >= recycleAfter) {
+            slot.closeContext();
+        }
+        idle.add(slot);
+        available.release();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Slot slot : slots) {
+            if (!slot.leased) {
+                slot.close();
+            }
+        }
+        idle.clear();
+        log.info("Browser pool closed ({} slots)", slots.size());
+    }
+
+    /**
+     * Exclusive use of one pooled page. Closing the lease returns the slot to the pool.
+     */
+    public class Lease implements AutoCloseable {
+        private final Slot slot;
+        private boolean broken;
+        private boolean returned;
+
+        private Lease(Slot slot) {
+            this.slot = slot;
+        }
+
+        public Page getPage() {
+            return slot.page;
+        }
+
+        public BrowserContext getContext() {
+            return slot.context;
+        }
+
+        // Count a finished page towards the slot's recycle limit
+        public void pageServed() {
+            slot.pagesServed++;
+        }
+
+        // The page is in an unknown state (crash, timeout, block page); reset it before reuse
+        public void markBroken() {
+            broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (!returned) {
+                returned = true;
+                giveBack(slot, broken);
+            }
+        }
+    }
+
+    private class Slot {
+        private final int id;
+        private Playwright playwright;
+        private Browser browser;
+        private BrowserContext context;
+        private Page page;
+        private int pagesServed;
+        private volatile boolean leased;
+
+        private Slot(int id) {
+            this.id = id;
+        }
+
+        // Relaunch whatever has died since the slot was last used
+        private void ensureHealthy() {
+            if (browser == null || !browser.isConnected()) {
+                close();
+                playwright = Playwright.create();
+                browser = playwrightConfig.createBrowser(playwright, headless);
+                log.debug("Browser slot {} launched", id);
+            }
+            if (context == null || page == null || page.isClosed()) {
+                closeContext();
+                context = playwrightConfig.createBrowserContext(browser);
+                page = playwrightConfig.createPage(context);
+                pagesServed = 0;
+            }
+        }
+
+        private void closeContext() {
+            try {
+                if (context != null) {
+                    context.close();
+                }
+            } catch (Exception e) {
+                log.debug("Error closing context of browser slot {}: {}", id, e.getMessage());
+            }
+            context = null;
+            page = null;
+        }
+
+        private void close() {
+            closeContext();
+            try {
+                if (browser != null) {
+                    browser.close();
+                }
+                if (playwright != null) {
+                    playwright.close();
+                }
+            } catch (Exception e) {
+                log.debug("Error closing browser slot {}: {}", id, e.getMessage());
+            }
+            browser = null;
+            playwright = null;
+        }
+    }
+}
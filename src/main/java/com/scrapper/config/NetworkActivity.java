@@ -0,0 +1,43 @@
+package com.scrapper.config;
+
+import com.microsoft.playwright.Page;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the requests a page has in flight, so callers can tell when the network has gone
+ * quiet after an action such as a scroll. Playwright's own network-idle load state only
+ * fires once per navigation, which makes it useless for infinite scrolling.
+ * Counters are updated from Playwright event callbacks, which run while the page's owner
+ * thread is inside a Playwright call.
+ */
+public class NetworkActivity {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastChangeNanos = new AtomicLong(System.nanoTime());
+
+    private NetworkActivity() {
+    }
+
+    public static NetworkActivity attach(Page page) {
+        NetworkActivity activity = new NetworkActivity();
+        page.onRequest(request -> activity.changed(1));
+        page.onRequestFinished(request -> activity.changed(-1));
+        page.onRequestFailed(request -> activity.changed(-1));
+        return activity;
+    }
+
+    private void changed(int delta) {
+        inFlight.updateAndGet(count -> Math.max(0, count + delta));
+        lastChangeNanos.set(System.nanoTime());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // True when no request is running and none has started or finished for quietMillis
+    public boolean isIdle(long quietMillis) {
+        return inFlight.get() == 0 && System.nanoTime() - lastChangeNanos.get() >= quietMillis * 1_000_000L;
+    }
+}
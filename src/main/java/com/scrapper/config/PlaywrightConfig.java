@@ -1,26 +1,29 @@
 package com.scrapper.config;
 
 import com.microsoft.playwright.*;
-import com.scrapper.util.ScraperUtility;
+import com.scrapper.fetch.DocumentFetcher;
+import com.scrapper.fetch.JsoupPageFetcher;
+import com.scrapper.fetch.RequestHeaders;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 public class PlaywrightConfig implements AutoCloseable {
-    private static final String[] USER_AGENTS = {
-            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
-            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
-            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/16.4 Safari/605.1.15",
-            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36 Edg/120.0.0.0",
-            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/139.0.0.0 Safari/537.36"
-    };
     private static final int SLOW_MO = 200; // Increased delay between operations
+    private static final Set<String> BLOCKED_RESOURCE_TYPES = Set.of("image", "media", "font");
+    private static final List<String> TRACKER_HOSTS = List.of(
+            "google-analytics.com", "googletagmanager.com", "doubleclick.net", "googlesyndication.com",
+            "facebook.net", "connect.facebook.com", "hotjar.com", "segment.io", "segment.com", "branch.io",
+            "criteo.com", "criteo.net", "bat.bing.com", "amplitude.com", "newrelic.com", "nr-data.net",
+            "sentry.io", "pinterest.com", "tiktok.com", "snapchat.com", "quantserve.com", "scorecardresearch.com");
     private static PlaywrightConfig instance;
     private Playwright playwright;
+    private final DocumentFetcher jsoupFetcher = new DocumentFetcher(new JsoupPageFetcher());
 
     // Private constructor
     private PlaywrightConfig() {
@@ -36,7 +39,7 @@ public class PlaywrightConfig implements AutoCloseable {
     }
 
     public String getRandomUserAgent() {
-        return USER_AGENTS[(int) (Math.random() * USER_AGENTS.length)];
+        return RequestHeaders.randomUserAgent();
     }
 
     /**
@@ -45,6 +48,11 @@ public class PlaywrightConfig implements AutoCloseable {
      * @return Configured Browser instance
      */
     public Browser createBrowser(boolean headless) {
+        return createBrowser(playwright, headless);
+    }
+
+    // Launch a browser from a specific Playwright instance, e.g. one owned by a pool slot
+    Browser createBrowser(Playwright playwright, boolean headless) {
         return playwright.chromium()
                 .launch(new BrowserType.LaunchOptions()
                         .setHeadless(headless)
@@ -115,47 +123,57 @@ public class PlaywrightConfig implements AutoCloseable {
         return page;
     }
 
-    // Method to fetch a product page using JSoup with retry logic
-    public Document getJsoupDocument(String productUrl) throws IOException {
-        final int MAX_RETRIES = 3;
-
-        Exception lastException = null;
-
-        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-            try {
-                if (attempt > 1) {
-                    // Add exponential backoff with jitter
-                    log.warn("Retry attempt {}/{} ...", attempt, MAX_RETRIES);
-                    ScraperUtility.randomSleep(2, 7);
-                }
-
-                return Jsoup.connect(productUrl)
-                        .userAgent(getRandomUserAgent())
-                        .timeout(10000 + (int) (Math.random() * 5000)) // Random timeout between 10-15s
-                        .header("accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,image/apng,*/*;q=0.8,application/signed-exchange;v=b3;q=0.7")
-                        .header("accept-language", "en-US,en;q=0.9,hi;q=0.8")
-                        .header("priority", "u=0, i")
-                        .header("sec-ch-ua", "\"Not;A=Brand\";v=\"99\", \"Google Chrome\";v=\"139\", \"Chromium\";v=\"139\"")
-                        .header("sec-ch-ua-mobile", "?0")
-                        .header("sec-ch-ua-platform", "\"macOS\"")
-                        .header("sec-fetch-dest", "document")
-                        .header("sec-fetch-mode", "navigate")
-                        .header("sec-fetch-site", "none")
-                        .header("sec-fetch-user", "?1")
-                        .header("upgrade-insecure-requests", "1")
-                        .header("Cookie", "_csrf=Es9WIOgVYOA7c9PG5Kv88BBk; esid=sift%3A68a08d0b28eb2753945f5a19; ps=%7B%22bid%22%3A%2268a08d0b28eb2753945f5a18%22%2C%22extvid%22%3A%22ext1%3A78674df7-a237-4534-b2e3-48aa6d391e21%22%7D; vsegv3=eyJsMDEiOiIwNDQiLCJsMDIiOiIwNjUiLCJsMDMiOiIxMjgiLCJsMDQiOiIxMDkiLCJsMDUiOiIwNTEiLCJsMDYiOiIwMzUiLCJsMDciOiIwMDQiLCJsMDgiOiIxMjMifQ%3D%3D")
-                        .get();
-            } catch (Exception e) {
-                lastException = e;
-                if (attempt < MAX_RETRIES) {
-                    log.warn("Attempt {}/{} failed for URL: {}", attempt, MAX_RETRIES, productUrl);
-                }
+    /**
+     * Aborts requests the closet grid does not need: images, media, fonts and third-party
+     * trackers. The tile markup and the scripts that load more tiles still go through.
+     *
+     * @param page Page to install the route on
+     */
+    public void blockHeavyResources(Page page) {
+        page.route("**/*", route -> {
+            Request request = route.request();
+            if (BLOCKED_RESOURCE_TYPES.contains(request.resourceType()) || isTracker(request.url())) {
+                route.abort();
+            } else {
+                route.resume();
             }
+        });
+    }
+
+    private static boolean isTracker(String url) {
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (host == null) {
+            return false;
         }
+        for (String tracker : TRACKER_HOSTS) {
+            if (host.equals(tracker) || host.endsWith("." + tracker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates a pool of leasable pages for rendering product pages concurrently.
+     * Each slot runs its own browser with a context from {@link #createBrowserContext(Browser)}.
+     *
+     * @param size         number of pages that can be leased at the same time
+     * @param headless     whether the pooled browsers run headless
+     * @param recycleAfter pages served by one context before it is replaced
+     * @return New BrowserPool; slots are launched on first use
+     */
+    public BrowserPool createBrowserPool(int size, boolean headless, int recycleAfter) {
+        return new BrowserPool(this, size, headless, recycleAfter);
+    }
 
-        // If we get here, all retries failed
-        log.error("All {} attempts failed for URL: {}", MAX_RETRIES, productUrl);
-        throw new IOException("Failed to fetch document after " + MAX_RETRIES + " attempts", lastException);
+    // Method to fetch a product page using JSoup with retry logic
+    public Document getJsoupDocument(String productUrl) throws IOException {
+        return jsoupFetcher.fetchDocument(productUrl);
     }
 
     /**
@@ -0,0 +1,183 @@
+package com.scrapper.config;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Tunable settings for a scraping run. Every value can be overridden with a
+ * {@code -Dscraper.*} system property so the positional CLI arguments stay unchanged.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ScraperSettings {
+    @Builder.Default
+    int maxInFlight = 16;          // Product fetches allowed to run at the same time
+    @Builder.Default
+    long minHostDelayMs = 2000;    // Minimum gap between two requests to the same host
+    @Builder.Default
+    long maxHostDelayMs = 4000;    // Maximum gap between two requests to the same host
+    @Builder.Default
+    boolean adaptiveRate = true;   // Tune concurrency and request rate from server feedback instead of fixed delays
+    @Builder.Default
+    double maxRequestsPerSecond = 10;   // Ceiling for the adaptive request rate per host
+    @Builder.Default
+    double minRequestsPerSecond = 0.2;  // Floor the adaptive rate never backs off below
+    @Builder.Default
+    double rateIncreaseStep = 0.05;     // Requests per second added after each successful response
+    @Builder.Default
+    int circuitBreakerThreshold = 5;    // Failed requests in a row that stop requests to a host for a while; 0 disables
+    @Builder.Default
+    long circuitBreakerOpenSeconds = 30; // How long a tripped host fails fast before one probe is let through
+    @Builder.Default
+    boolean hedgeRequests = false;      // Send a duplicate request when the first one runs past the hedge quantile
+    @Builder.Default
+    double hedgeQuantile = 0.95;        // Latency quantile after which a request is hedged
+    @Builder.Default
+    boolean pipeline = false;      // Fetch product details while the closet is still scrolling
+    @Builder.Default
+    int urlQueueCapacity = 64;     // URLs buffered between the scroller and the fetch workers
+    @Builder.Default
+    String fetchBackend = "jsoup"; // Product page backend: jsoup or httpclient
+    @Builder.Default
+    int httpConnectionPoolSize = 32;  // Idle connections kept by the shared HTTP client
+    @Builder.Default
+    int httpKeepAliveSeconds = 30;    // How long idle pooled connections stay open
+    @Builder.Default
+    boolean responseCache = false;    // Keep listing pages on disk and revalidate them on later runs
+    @Builder.Default
+    String cacheDir = ".poshmark-cache/responses";
+    @Builder.Default
+    long cacheMaxMegabytes = 512;     // Size bound for cached (compressed) bodies
+    @Builder.Default
+    long cacheMaxAgeSeconds = 0;      // Serve entries younger than this without a request; 0 always revalidates
+    @Builder.Default
+    boolean delta = false;            // Only fetch listings that are new or changed since the last run
+    @Builder.Default
+    String indexDir = ".poshmark-cache/index";
+    @Builder.Default
+    boolean resume = false;           // Replay the journal of an interrupted run and skip finished work
+    @Builder.Default
+    String journalDir = ".poshmark-cache/journal";
+    @Builder.Default
+    int journalBatchSize = 20;        // Journal records buffered before they are forced to disk
+    @Builder.Default
+    int maxInFlightPerCloset = 4;     // Cap on one closet's concurrent fetches in batch mode
+    @Builder.Default
+    String batchOutputDir = ".";      // Where batch mode writes per-closet output and summaries
+    @Builder.Default
+    int browserPoolSize = 2;          // Product pages rendered at the same time by the Playwright path
+    @Builder.Default
+    int browserPagesPerContext = 10;  // Pages one browser context serves before it is replaced
+    @Builder.Default
+    boolean blockResources = true;    // Abort images, media, fonts and trackers while scrolling a closet
+    @Builder.Default
+    long scrollGraceMs = 5000;        // Longest wait for new tiles after one scroll
+    @Builder.Default
+    long networkIdleMs = 500;         // Quiet network time after which a scroll counts as settled
+    @Builder.Default
+    int maxEmptyScrolls = 3;          // Scrolls in a row without new tiles before the closet counts as done
+    @Builder.Default
+    String enumeration = "auto";      // Closet listing: auto (HTTP feed, browser fallback), http or browser
+    @Builder.Default
+    boolean embeddedState = false;    // Read listings from the page's embedded state JSON before trying selectors
+    @Builder.Default
+    String parseMode = "dom";         // Listing parsing: dom (full document) or stream (extract while parsing)
+    @Builder.Default
+    boolean images = false;           // Download listing images into a content-addressed store
+    @Builder.Default
+    String imageDir = "images";
+    @Builder.Default
+    String imageVariant = "full";     // Image size to download: thumbnail, full or as_listed
+    @Builder.Default
+    int imageConcurrency = 8;         // Images downloaded at the same time
+    @Builder.Default
+    long imageMaxBytesPerSecond = 0;  // Combined image download rate cap; 0 means unlimited
+    @Builder.Default
+    int serverPort = 8080;            // Port of the --serve HTTP API
+    @Builder.Default
+    int serverQueueCapacity = 16;     // Jobs that may wait in --serve mode before submissions are refused
+    @Builder.Default
+    String serverOutputDir = "jobs";  // Where --serve mode writes each job's output and summary
+    @Builder.Default
+    boolean metrics = false;          // Export JSON and Prometheus snapshots of the run's metrics
+    @Builder.Default
+    String metricsDir = "metrics";
+    @Builder.Default
+    long metricsIntervalSeconds = 10; // Seconds between snapshots while running; 0 writes only the final one
+
+    public static ScraperSettings defaults() {
+        return ScraperSettings.builder().build();
+    }
+
+    // Build settings from -Dscraper.* system properties, falling back to defaults
+    public static ScraperSettings fromSystemProperties() {
+        ScraperSettings defaults = defaults();
+        return ScraperSettings.builder()
+                .maxInFlight(Integer.getInteger("scraper.maxInFlight", defaults.getMaxInFlight()))
+                .minHostDelayMs(Long.getLong("scraper.minHostDelayMs", defaults.getMinHostDelayMs()))
+                .maxHostDelayMs(Long.getLong("scraper.maxHostDelayMs", defaults.getMaxHostDelayMs()))
+                .adaptiveRate(Boolean.parseBoolean(System.getProperty("scraper.adaptiveRate",
+                        String.valueOf(defaults.isAdaptiveRate()))))
+                .maxRequestsPerSecond(Double.parseDouble(System.getProperty("scraper.maxRequestsPerSecond",
+                        String.valueOf(defaults.getMaxRequestsPerSecond()))))
+                .minRequestsPerSecond(Double.parseDouble(System.getProperty("scraper.minRequestsPerSecond",
+                        String.valueOf(defaults.getMinRequestsPerSecond()))))
+                .rateIncreaseStep(Double.parseDouble(System.getProperty("scraper.rateIncreaseStep",
+                        String.valueOf(defaults.getRateIncreaseStep()))))
+                .circuitBreakerThreshold(Integer.getInteger("scraper.circuitBreakerThreshold",
+                        defaults.getCircuitBreakerThreshold()))
+                .circuitBreakerOpenSeconds(Long.getLong("scraper.circuitBreakerOpenSeconds",
+                        defaults.getCircuitBreakerOpenSeconds()))
+                .hedgeRequests(Boolean.parseBoolean(System.getProperty("scraper.hedgeRequests",
+                        String.valueOf(defaults.isHedgeRequests()))))
+                .hedgeQuantile(Double.parseDouble(System.getProperty("scraper.hedgeQuantile",
+                        String.valueOf(defaults.getHedgeQuantile()))))
+                .pipeline(Boolean.parseBoolean(System.getProperty("scraper.pipeline",
+                        String.valueOf(defaults.isPipeline()))))
+                .urlQueueCapacity(Integer.getInteger("scraper.urlQueueCapacity", defaults.getUrlQueueCapacity()))
+                .fetchBackend(System.getProperty("scraper.fetchBackend", defaults.getFetchBackend()))
+                .httpConnectionPoolSize(Integer.getInteger("scraper.httpConnectionPoolSize",
+                        defaults.getHttpConnectionPoolSize()))
+                .httpKeepAliveSeconds(Integer.getInteger("scraper.httpKeepAliveSeconds", defaults.getHttpKeepAliveSeconds()))
+                .responseCache(Boolean.parseBoolean(System.getProperty("scraper.responseCache",
+                        String.valueOf(defaults.isResponseCache()))))
+                .cacheDir(System.getProperty("scraper.cacheDir", defaults.getCacheDir()))
+                .cacheMaxMegabytes(Long.getLong("scraper.cacheMaxMegabytes", defaults.getCacheMaxMegabytes()))
+                .cacheMaxAgeSeconds(Long.getLong("scraper.cacheMaxAgeSeconds", defaults.getCacheMaxAgeSeconds()))
+                .delta(Boolean.parseBoolean(System.getProperty("scraper.delta", String.valueOf(defaults.isDelta()))))
+                .indexDir(System.getProperty("scraper.indexDir", defaults.getIndexDir()))
+                .resume(Boolean.parseBoolean(System.getProperty("scraper.resume", String.valueOf(defaults.isResume()))))
+                .journalDir(System.getProperty("scraper.journalDir", defaults.getJournalDir()))
+                .journalBatchSize(Integer.getInteger("scraper.journalBatchSize", defaults.getJournalBatchSize()))
+                .maxInFlightPerCloset(Integer.getInteger("scraper.maxInFlightPerCloset",
+                        defaults.getMaxInFlightPerCloset()))
+                .batchOutputDir(System.getProperty("scraper.batchOutputDir", defaults.getBatchOutputDir()))
+                .browserPoolSize(Integer.getInteger("scraper.browserPoolSize", defaults.getBrowserPoolSize()))
+                .browserPagesPerContext(Integer.getInteger("scraper.browserPagesPerContext",
+                        defaults.getBrowserPagesPerContext()))
+                .blockResources(Boolean.parseBoolean(System.getProperty("scraper.blockResources",
+                        String.valueOf(defaults.isBlockResources()))))
+                .scrollGraceMs(Long.getLong("scraper.scrollGraceMs", defaults.getScrollGraceMs()))
+                .networkIdleMs(Long.getLong("scraper.networkIdleMs", defaults.getNetworkIdleMs()))
+                .maxEmptyScrolls(Integer.getInteger("scraper.maxEmptyScrolls", defaults.getMaxEmptyScrolls()))
+                .enumeration(System.getProperty("scraper.enumeration", defaults.getEnumeration()))
+                .embeddedState(Boolean.parseBoolean(System.getProperty("scraper.embeddedState",
+                        String.valueOf(defaults.isEmbeddedState()))))
+                .parseMode(System.getProperty("scraper.parseMode", defaults.getParseMode()))
+                .images(Boolean.parseBoolean(System.getProperty("scraper.images", String.valueOf(defaults.isImages()))))
+                .imageDir(System.getProperty("scraper.imageDir", defaults.getImageDir()))
+                .imageVariant(System.getProperty("scraper.imageVariant", defaults.getImageVariant()))
+                .imageConcurrency(Integer.getInteger("scraper.imageConcurrency", defaults.getImageConcurrency()))
+                .imageMaxBytesPerSecond(Long.getLong("scraper.imageMaxBytesPerSecond",
+                        defaults.getImageMaxBytesPerSecond()))
+                .serverPort(Integer.getInteger("scraper.serverPort", defaults.getServerPort()))
+                .serverQueueCapacity(Integer.getInteger("scraper.serverQueueCapacity",
+                        defaults.getServerQueueCapacity()))
+                .serverOutputDir(System.getProperty("scraper.serverOutputDir", defaults.getServerOutputDir()))
+                .metrics(Boolean.parseBoolean(System.getProperty("scraper.metrics", String.valueOf(defaults.isMetrics()))))
+                .metricsDir(System.getProperty("scraper.metricsDir", defaults.getMetricsDir()))
+                .metricsIntervalSeconds(Long.getLong("scraper.metricsIntervalSeconds",
+                        defaults.getMetricsIntervalSeconds()))
+                .build();
+    }
+}
@@ -0,0 +1,199 @@
+package com.scrapper.extract;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scrapper.model.Product;
+import com.scrapper.util.ScraperUtility;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Maps a listing page straight to a {@link Product} from the server state the page embeds
+ * for client-side hydration ({@code window.__INITIAL_STATE__ = {...}}).
+ * The state is read with a streaming parser that skips everything up to the listing
+ * subtree and only materializes that subtree, so the rest of the (large) state is never
+ * built into objects. The state also holds related listings, so a listing whose id is not
+ * the one in the page URL is passed over. Returns null when the page has no usable state,
+ * in which case callers fall back to the CSS selectors.
+ * <p>
+ * Prices come out as the page shows them ("$50", "$1,200", "$12.50"); the listing date is
+ * the state's ISO-8601 publish time rather than the page's relative "Updated ..." text.
+ */
+@Slf4j
+public class EmbeddedStateExtractor {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String STATE_MARKER = "__INITIAL_STATE__";
+    // Keys under which the state keeps the listing being viewed
+    private static final Set<String> LISTING_KEYS = Set.of("listingDetails", "listing");
+
+    /**
+     * @param doc        parsed listing page
+     * @param productUrl URL the page was fetched from
+     * @return product built from the embedded state, or null if there is none or it has no title
+     */
+    public Product extract(Document doc, String productUrl) {
+        for (Element script : doc.getElementsByTag("script")) {
+            String data = script.data();
+            if (data.contains(STATE_MARKER)) {
+                return extractFromScript(data, productUrl);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param scriptData contents of one script element
+     * @param productUrl URL the page was fetched from
+     * @return product built from the state in this script, or null if it holds no usable state
+     */
+    public Product extractFromScript(String scriptData, String productUrl) {
+        int marker = scriptData.indexOf(STATE_MARKER);
+        int start = marker < 0 ? -1 : scriptData.indexOf('{', marker);
+        if (start < 0) {
+            return null;
+        }
+        try {
+            JsonNode listing = readListingSubtree(scriptData.substring(start), productUrl);
+            if (listing == null || text(listing, "title") == null) {
+                return null;
+            }
+            return toProduct(listing, productUrl);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read embedded state for {}: {}", productUrl, e.getMessage());
+            return null;
+        }
+    }
+
+    // True when the script carries the page state and is worth handing to extractFromScript
+    public static boolean isStateScript(String scriptData) {
+        return scriptData.contains(STATE_MARKER);
+    }
+
+    // Stream through the state and materialize only the listing the URL names, or failing that the first
+    // listing object without an id; listings with another id are related ones and are skipped
+    private static JsonNode readListingSubtree(String state, String productUrl) throws IOException {
+        String productId = ScraperUtility.extractProductIdFromUrl(productUrl);
+        JsonNode withoutId = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(state)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && LISTING_KEYS.contains(parser.currentName())
+                        && parser.nextToken() == JsonToken.START_OBJECT) {
+                    JsonNode listing = objectMapper.readTree(parser);
+                    String id = text(listing, "id");
+                    if (id == null) {
+                        if (withoutId == null) {
+                            withoutId = listing;
+                        }
+                    } else if (productId.equals(id) || productId.endsWith("-" + id)) {
+                        return listing;
+                    }
+                }
+                // Stop at the end of the state object; the script goes on with ";" and more code
+                if ((token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY)
+                        && parser.getParsingContext().inRoot()) {
+                    break;
+                }
+            }
+        }
+        return withoutId;
+    }
+
+    private static Product toProduct(JsonNode listing, String productUrl) {
+        return Product.builder()
+                .productId(ScraperUtility.extractProductIdFromUrl(productUrl))
+                .productTitle(text(listing, "title"))
+                .brandName(orEmpty(firstText(listing.path("brand_obj"), "display", listing, "brand")))
+                .price(amount(listing.path("original_price_amount")))
+                .discountedPrice(amount(listing.path("price_amount")))
+                .size(orEmpty(firstText(listing.path("size_obj"), "display", listing, "size")))
+                .colors(displayNames(listing.path("colors"), "name"))
+                .categories(categories(listing.path("catalog")))
+                .description(orEmpty(text(listing, "description")))
+                .productUrl(productUrl)
+                .imageUrls(imageUrls(listing))
+                .sellerUsername(orEmpty(text(listing, "creator_username")))
+                .listingDate(orEmpty(firstText(listing, "first_published_at", listing, "created_at")))
+                .build();
+    }
+
+    // Amounts are {val, currency_symbol}; shown the way the page does, e.g. "$50", "$1,200" or "$12.50"
+    private static String amount(JsonNode amount) {
+        String value = text(amount, "val");
+        if (value == null) {
+            return "";
+        }
+        String symbol = text(amount, "currency_symbol");
+        return (symbol != null ? symbol : "$") + groupDigits(value);
+    }
+
+    private static String groupDigits(String value) {
+        try {
+            BigDecimal number = new BigDecimal(value);
+            return number.remainder(BigDecimal.ONE).signum() == 0
+                    ? String.format(Locale.US, "%,d", number.toBigInteger())
+                    : String.format(Locale.US, "%,.2f", number);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    // Department, category and sub-categories, in the order the breadcrumb shows them
+    private static List<String> categories(JsonNode catalog) {
+        List<String> categories = new ArrayList<>();
+        addIfPresent(categories, text(catalog.path("department_obj"), "display"));
+        addIfPresent(categories, text(catalog.path("category_obj"), "display"));
+        categories.addAll(displayNames(catalog.path("category_feature_objs"), "display"));
+        return categories;
+    }
+
+    private static List<String> imageUrls(JsonNode listing) {
+        Set<String> urls = new LinkedHashSet<>();
+        addIfPresent(urls, text(listing.path("cover_shot"), "url"));
+        for (JsonNode picture : listing.path("pictures")) {
+            addIfPresent(urls, text(picture, "url"));
+        }
+        return new ArrayList<>(urls);
+    }
+
+    private static List<String> displayNames(JsonNode array, String field) {
+        List<String> names = new ArrayList<>();
+        for (JsonNode element : array) {
+            addIfPresent(names, element.isTextual() ? element.asText() : text(element, field));
+        }
+        return names;
+    }
+
+    private static String firstText(JsonNode first, String firstField, JsonNode second, String secondField) {
+        String value = text(first, firstField);
+        return value != null ? value : text(second, secondField);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        return value.isValueNode() && !value.isNull() && !value.asText().isBlank() ? value.asText().trim() : null;
+    }
+
+    // Missing fields are empty, as the selectors leave them
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static void addIfPresent(Collection<String> values, String value) {
+        if (value != null) {
+            values.add(value);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.scrapper.extract;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Product fields of a listing page and the CSS selectors that locate them, compiled once.
+ * Combinators are matched by walking up the tree rather than by jsoup's structural
+ * evaluators, which memoize matches per thread and keep every document they saw reachable.
+ * Only descendant and child combinators are supported.
+ */
+enum ListingField {
+    TITLE("h1.listing__title-container", false),
+    BRAND("a.listing__brand", false),
+    PRICE("span.m--l--2", false),
+    DISCOUNTED_PRICE("p.h1", false),
+    SIZE("button.size-selector__size-option", false),
+    COLORS("div.m--r--7:nth-child(2) > div", true),
+    DESCRIPTION("div.listing__description", false),
+    CATEGORIES("div.m--r--7:nth-child(1) > div", true),
+    IMAGES("ul.carousel-vertical__inner > li", true),
+    SELLER(".listing__header-container .d--fl > .d--fl a", false),
+    LISTING_DATE(".timestamp", false);
+
+    // Subtrees that never hold product fields
+    static final Set<String> SKIPPED_TAGS = Set.of("script", "style", "svg", "noscript", "template");
+    static final ListingField[] ALL = values();
+    private static final Evaluator IMAGE = QueryParser.parse("img");
+
+    final Evaluator evaluator;
+    final boolean multiple;
+
+    ListingField(String selector, boolean multiple) {
+        this.evaluator = Chain.compile(selector);
+        this.multiple = multiple;
+    }
+
+    // Value of this field in a matched element: the image URL for carousel items, the text otherwise
+    String valueOf(Element element) {
+        if (this == IMAGES) {
+            Element image = element.selectFirst(IMAGE);
+            if (image == null) {
+                return null;
+            }
+            // Prefer src over the lazy-load data-src
+            return image.attr("src").isEmpty() ? image.attr("data-src") : image.attr("src");
+        }
+        String text = element.text();
+        if (this == DISCOUNTED_PRICE) {
+            int space = text.indexOf(' ');
+            return space >= 0 ? text.substring(0, space) : text;
+        }
+        return text;
+    }
+
+    // Compound selectors joined by descendant or child combinators, matched right to left without memos
+    private static final class Chain extends Evaluator {
+        private final Evaluator[] parts;
+        // childOf[i]: parts[i] must match the parent of the element parts[i + 1] matched, not just an ancestor
+        private final boolean[] childOf;
+
+        private Chain(Evaluator[] parts, boolean[] childOf) {
+            this.parts = parts;
+            this.childOf = childOf;
+        }
+
+        static Evaluator compile(String selector) {
+            List<Evaluator> parts = new ArrayList<>();
+            List<Boolean> childOf = new ArrayList<>();
+            boolean child = false;
+            for (String token : selector.trim().split("\\s+")) {
+                if (token.equals(">")) {
+                    child = true;
+                    continue;
+                }
+                if (!parts.isEmpty()) {
+                    childOf.add(child);
+                }
+                parts.add(QueryParser.parse(token));
+                child = false;
+            }
+            if (parts.size() == 1) {
+                return parts.get(0);
+            }
+            boolean[] flags = new boolean[childOf.size()];
+            for (int i = 0; i < flags.length; i++) {
+                flags[i] = childOf.get(i);
+            }
+            return new Chain(parts.toArray(new Evaluator[0]), flags);
+        }
+
+        @Override
+        public boolean matches(Element root, Element element) {
+            return matchesFrom(root, element, parts.length - 1);
+        }
+
+        private boolean matchesFrom(Element root, Element element, int part) {
+            if (!parts[part].matches(root, element)) {
+                return false;
+            }
+            if (part == 0) {
+                return true;
+            }
+            Element parent = element.parent();
+            if (childOf[part - 1]) {
+                return parent != null && matchesFrom(root, parent, part - 1);
+            }
+            for (; parent != null; parent = parent.parent()) {
+                if (matchesFrom(root, parent, part - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.scrapper.extract;
+
+import com.scrapper.model.Product;
+import com.scrapper.util.ScraperUtility;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills a {@link Product} from a listing page with the CSS selectors compiled once, in a
+ * single walk of the document. Every element is checked against all field selectors as
+ * the walk passes it, instead of walking the whole tree once per field, and script, style
+ * and SVG subtrees are skipped. Missing fields become empty values; nothing is thrown.
+ * Instances are stateless and safe to share between fetch threads.
+ */
+public class ProductExtractor {
+
+    /**
+     * @param doc        parsed listing page
+     * @param productUrl URL the page was fetched from
+     * @return product with every field the page has; missing ones are empty
+     */
+    public Product extract(Document doc, String productUrl) {
+        return toProduct(collect(doc), productUrl);
+    }
+
+    // Build the product from the values found per field
+    static Product toProduct(Map<ListingField, List<String>> values, String productUrl) {
+        return Product.builder()
+                .productId(ScraperUtility.extractProductIdFromUrl(productUrl))
+                .productTitle(first(values, ListingField.TITLE))
+                .brandName(first(values, ListingField.BRAND))
+                .price(first(values, ListingField.PRICE))
+                .discountedPrice(first(values, ListingField.DISCOUNTED_PRICE))
+                .size(first(values, ListingField.SIZE))
+                .colors(all(values, ListingField.COLORS))
+                .categories(all(values, ListingField.CATEGORIES))
+                .description(first(values, ListingField.DESCRIPTION))
+                .productUrl(productUrl)
+                .imageUrls(all(values, ListingField.IMAGES))
+                .sellerUsername(first(values, ListingField.SELLER))
+                .listingDate(first(values, ListingField.LISTING_DATE))
+                .build();
+    }
+
+    // One pass over the document, recording the first match of single fields and every match of list fields
+    private static Map<ListingField, List<String>> collect(Document doc) {
+        Map<ListingField, List<String>> values = new EnumMap<>(ListingField.class);
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (!(node instanceof Element element)) {
+                    return FilterResult.SKIP_ENTIRELY;
+                }
+                if (ListingField.SKIPPED_TAGS.contains(element.normalName())) {
+                    return FilterResult.SKIP_ENTIRELY;
+                }
+                for (ListingField field : ListingField.ALL) {
+                    if (!field.multiple && values.containsKey(field)) {
+                        continue;
+                    }
+                    if (field.evaluator.matches(doc, element)) {
+                        add(values, field, field.valueOf(element));
+                    }
+                }
+                return FilterResult.CONTINUE;
+            }
+        }, doc);
+        return values;
+    }
+
+    static void add(Map<ListingField, List<String>> values, ListingField field, String value) {
+        if (value != null) {
+            values.computeIfAbsent(field, f -> new ArrayList<>(field.multiple ? 8 : 1)).add(value);
+        }
+    }
+
+    private static String first(Map<ListingField, List<String>> values, ListingField field) {
+        List<String> found = values.get(field);
+        return found == null ? "" : found.get(0);
+    }
+
+    private static List<String> all(Map<ListingField, List<String>> values, ListingField field) {
+        List<String> found = values.get(field);
+        return found == null ? List.of() : found;
+    }
+}
@@ -0,0 +1,155 @@
+package com.scrapper.extract;
+
+import com.scrapper.fetch.PageResponse;
+import com.scrapper.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts a {@link Product} while the listing page is still being parsed, without ever
+ * holding the full DOM. Elements are checked against the compiled field selectors as they
+ * complete; once an element's values are taken, its children are dropped unless an open
+ * ancestor is itself a field that still needs its text. Parsing stops as soon as every
+ * field is found, or as soon as the embedded page state yields a complete product.
+ * <p>
+ * Completed elements are emptied rather than removed, so sibling positions used by
+ * {@code :nth-child} selectors stay correct.
+ */
+@Slf4j
+public class StreamingProductExtractor {
+    private final EmbeddedStateExtractor embeddedStateExtractor;
+
+    /**
+     * @param embeddedStateExtractor reads the page state from script tags, or null to use the selectors only
+     */
+    public StreamingProductExtractor(EmbeddedStateExtractor embeddedStateExtractor) {
+        this.embeddedStateExtractor = embeddedStateExtractor;
+    }
+
+    /**
+     * @param response   fetched listing page
+     * @param productUrl URL the page was fetched from
+     * @return product with every field the page has; missing ones are empty
+     */
+    public Product extract(PageResponse response, String productUrl) {
+        Map<ListingField, List<String>> values = new EnumMap<>(ListingField.class);
+        Reader reader = new InputStreamReader(new ByteArrayInputStream(response.getBody()), charsetOf(response));
+        try (StreamParser parser = new StreamParser(Parser.htmlParser()).parse(reader, productUrl)) {
+            Document doc = parser.document();
+            PassState state = new PassState(doc);
+
+            for (Element element : (Iterable<Element>) parser::iterator) {
+                if (embeddedStateExtractor != null && element.normalName().equals("script")) {
+                    String data = element.data();
+                    if (EmbeddedStateExtractor.isStateScript(data)) {
+                        Product product = embeddedStateExtractor.extractFromScript(data, productUrl);
+                        if (product != null) {
+                            parser.stop();
+                            return product;
+                        }
+                    }
+                }
+                if (!ListingField.SKIPPED_TAGS.contains(element.normalName())) {
+                    for (ListingField field : ListingField.ALL) {
+                        if ((field.multiple || !values.containsKey(field)) && field.evaluator.matches(doc, element)) {
+                            ProductExtractor.add(values, field, field.valueOf(element));
+                            state.matched(field, element);
+                        }
+                    }
+                }
+                state.completed(element);
+                if (state.allFieldsFound(values)) {
+                    parser.stop();
+                    break;
+                }
+            }
+        }
+        return ProductExtractor.toProduct(values, productUrl);
+    }
+
+    private static Charset charsetOf(PageResponse response) {
+        String name = response.charsetName();
+        try {
+            return name != null ? Charset.forName(name) : StandardCharsets.UTF_8;
+        } catch (IllegalArgumentException e) {
+            log.debug("Unknown charset {}; reading as UTF-8", name);
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    // Bookkeeping for one page: which open elements must keep their children, and which list fields are complete
+    private static class PassState {
+        private final Document doc;
+        // Open element -> whether it or one of its ancestors is a field element
+        private final Map<Element, Boolean> insideField = new IdentityHashMap<>();
+        // List field -> parent of its first match; the list is complete when that parent closes
+        private final Map<ListingField, Element> listParents = new EnumMap<>(ListingField.class);
+        private final Map<ListingField, Boolean> listsClosed = new EnumMap<>(ListingField.class);
+
+        private PassState(Document doc) {
+            this.doc = doc;
+        }
+
+        private void matched(ListingField field, Element element) {
+            if (field.multiple && !listParents.containsKey(field)) {
+                listParents.put(field, element.parent());
+            }
+        }
+
+        private void completed(Element element) {
+            insideField.remove(element);
+            listParents.forEach((field, parent) -> {
+                if (parent == element) {
+                    listsClosed.put(field, true);
+                }
+            });
+            // The values are taken, so the children are only needed if an enclosing field still reads them
+            Element parent = element.parent();
+            if (parent != null && !isInsideField(parent)) {
+                element.empty();
+            }
+        }
+
+        private boolean isInsideField(Element element) {
+            Boolean cached = insideField.get(element);
+            if (cached != null) {
+                return cached;
+            }
+            boolean inside = false;
+            for (ListingField field : ListingField.ALL) {
+                if (field.evaluator.matches(doc, element)) {
+                    inside = true;
+                    break;
+                }
+            }
+            Element parent = element.parent();
+            if (!inside && parent != null) {
+                inside = isInsideField(parent);
+            }
+            insideField.put(element, inside);
+            return inside;
+        }
+
+        private boolean allFieldsFound(Map<ListingField, List<String>> values) {
+            for (ListingField field : ListingField.ALL) {
+                if (!values.containsKey(field) || (field.multiple && !listsClosed.containsKey(field))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
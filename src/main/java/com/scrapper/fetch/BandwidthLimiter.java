@@ -0,0 +1,48 @@
+package com.scrapper.fetch;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket over bytes: readers take tokens for every chunk they read, so the combined
+ * throughput of all readers stays under the configured rate. Up to one second of budget can
+ * be spent in a burst. A rate of zero or less means unlimited.
+ */
+public class BandwidthLimiter {
+    private final long bytesPerSecond;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    public BandwidthLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = bytesPerSecond;
+    }
+
+    // Block until the given number of bytes may be read
+    public void acquire(long bytes) throws InterruptedException {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        long waitNanos;
+        lock.lock();
+        try {
+            refill();
+            // Take the tokens now, going into debt if needed; the debt is the wait
+            tokens -= bytes;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+        } finally {
+            lock.unlock();
+        }
+        if (waitNanos > 0) {
+            Thread.sleep(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(bytesPerSecond, tokens + (now - lastRefillNanos) * bytesPerSecond / 1e9);
+        lastRefillNanos = now;
+    }
+}
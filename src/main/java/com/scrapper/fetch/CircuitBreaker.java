@@ -0,0 +1,124 @@
+package com.scrapper.fetch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-host circuit breaker. After a run of failed attempts the host's circuit opens and
+ * requests to it fail fast instead of waiting out timeouts and retries. Once the open
+ * period is over a single probe is let through: success closes the circuit, failure
+ * opens it again for another period.
+ */
+@Slf4j
+public class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final ConcurrentHashMap<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * @param failureThreshold failed attempts in a row that open the circuit; 0 disables the breaker
+     * @param openDuration     how long an open circuit rejects requests before probing
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    private static class HostState {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int consecutiveFailures;
+        private long openUntilNanos;
+        private boolean probing;
+    }
+
+    // True if a request to the host may go out now; while half-open only one probe is allowed
+    public boolean allow(String host) {
+        if (failureThreshold <= 0) {
+            return true;
+        }
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState());
+        state.lock.lock();
+        try {
+            if (state.consecutiveFailures < failureThreshold) {
+                return true;
+            }
+            if (state.probing || System.nanoTime() < state.openUntilNanos) {
+                return false;
+            }
+            state.probing = true;
+            log.info("Circuit for {} is half-open; sending a probe", host);
+            return true;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    public void onSuccess(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            return;
+        }
+        state.lock.lock();
+        try {
+            if (state.consecutiveFailures >= failureThreshold && failureThreshold > 0) {
+                log.info("Circuit for {} closed again", host);
+            }
+            state.consecutiveFailures = 0;
+            state.probing = false;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    public void onFailure(String host) {
+        if (failureThreshold <= 0) {
+            return;
+        }
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState());
+        state.lock.lock();
+        try {
+            state.consecutiveFailures++;
+            if (state.consecutiveFailures >= failureThreshold) {
+                // Either the threshold was just reached or the half-open probe failed
+                if (state.consecutiveFailures == failureThreshold || state.probing) {
+                    log.warn("Circuit for {} opened after {} failures in a row; failing fast for {} s", host,
+                            state.consecutiveFailures, Duration.ofNanos(openNanos).toSeconds());
+                }
+                state.openUntilNanos = System.nanoTime() + openNanos;
+                state.probing = false;
+            }
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    // Let another probe through when one was cancelled or interrupted before it got an answer
+    public void abandonProbe(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            return;
+        }
+        state.lock.lock();
+        try {
+            state.probing = false;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    public boolean isOpen(String host) {
+        HostState state = hosts.get(host);
+        if (state == null || failureThreshold <= 0) {
+            return false;
+        }
+        state.lock.lock();
+        try {
+            return state.consecutiveFailures >= failureThreshold;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.scrapper.fetch;
+
+import com.scrapper.metrics.Phase;
+import com.scrapper.model.ListingTile;
+import com.scrapper.model.ScrapingSummary;
+import com.scrapper.util.ScraperUtility;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+/**
+ * Enumerates a closet without a browser by paging through the server-rendered closet feed
+ * ({@code ?max_id=2}, {@code ?max_id=3}, ...), the same tiles the infinite scroll appends.
+ * A few pages are requested ahead and parsed on virtual threads, while tiles are handed
+ * out in page order on the calling thread. Page requests pass through the caller's
+ * {@link RequestGate}, so they are paced and counted like product fetches.
+ */
+@Slf4j
+public class ClosetFeed {
+    private static final String TILE_SELECTOR = "div.tiles_container > div";
+    private static final String BASE_URL = "https://poshmark.com";
+    // Pages requested ahead of the one being consumed
+    private static final int PAGES_AHEAD = 4;
+    private static final ExecutorService parsers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("closet-parse-", 0).factory());
+
+    private final DocumentFetcher fetcher;
+
+    /**
+     * @param fetcher fetcher for the feed pages; it must not use the response cache, which
+     *                keys entries by the last path segment and would collapse all pages into one
+     */
+    public ClosetFeed(DocumentFetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Pages through the closet until a page adds no new tiles or the limit is reached. A page
+     * after the first that still fails once its retries are spent ends the feed early with a
+     * warning, keeping the tiles already accepted.
+     *
+     * @param closetUrl    URL of the closet
+     * @param productCount stop after this many accepted tiles
+     * @param summary      summary that records page fetch and parse latency
+     * @param gate         gate every page request passes through, e.g. the closet's lane
+     * @param onTile       receives every tile in feed order; returns false for tiles it has already seen
+     * @return true if the feed was read to its end or to the limit, false if a failed page cut it short
+     * @throws IOException when the first page fails or shows no tiles, i.e. the feed is unavailable,
+     *                     or when the calling thread is interrupted
+     */
+    public boolean enumerate(String closetUrl, int productCount, ScrapingSummary summary, RequestGate gate,
+                         Predicate<ListingTile> onTile) throws IOException {
+        List<CompletableFuture<PageResponse>> requests = new ArrayList<>();
+        List<CompletableFuture<List<ListingTile>>> pages = new ArrayList<>();
+        int accepted = 0;
+        int nextPage = 1;
+        try {
+            for (int page = 1; ; page++) {
+                // Read ahead only once the first page shows the feed is there
+                while (nextPage < page + (page == 1 ? 1 : PAGES_AHEAD)) {
+                    pages.add(requestPage(closetUrl, nextPage++, summary, gate, requests));
+                }
+                List<ListingTile> tiles;
+                try {
+                    tiles = await(pages.get(page - 1), closetUrl, page);
+                } catch (InterruptedIOException e) {
+                    throw e;
+                } catch (IOException e) {
+                    if (page == 1) {
+                        throw e;
+                    }
+                    log.warn("Closet feed of {} cut short after {} pages: {}", closetUrl, page - 1, e.getMessage());
+                    return false;
+                }
+                if (page == 1 && tiles.isEmpty()) {
+                    throw new IOException("No listing tiles on the first page of " + closetUrl);
+                }
+                int before = accepted;
+                for (ListingTile tile : tiles) {
+                    if (onTile.test(tile) && ++accepted >= productCount) {
+                        return true;
+                    }
+                }
+                // Past the last page the feed repeats or comes back empty
+                if (accepted == before) {
+                    log.info("Closet feed of {} ended after {} pages", closetUrl, page);
+                    return true;
+                }
+            }
+        } finally {
+            // Cancelling the fetches, not just the parses chained on them, stops pages read ahead
+            requests.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private CompletableFuture<List<ListingTile>> requestPage(String closetUrl, int page, ScrapingSummary summary,
+                                                             RequestGate gate,
+                                                             List<CompletableFuture<PageResponse>> requests) {
+        String url = pageUrl(closetUrl, page);
+        CompletableFuture<PageResponse> request = fetcher.fetchAsync(url, summary, gate);
+        requests.add(request);
+        return request.thenApplyAsync(response -> {
+            long parseStart = System.nanoTime();
+            try {
+                List<ListingTile> tiles = parseTiles(fetcher.parse(response, url));
+                summary.record(Phase.PARSE, System.nanoTime() - parseStart);
+                return tiles;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, parsers);
+    }
+
+    private static List<ListingTile> await(CompletableFuture<List<ListingTile>> page, String closetUrl, int number)
+            throws IOException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading the closet feed of " + closetUrl);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                cause = unchecked.getCause();
+            }
+            throw new IOException("Closet feed page " + number + " failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    // The closet URL itself is page 1; later pages add max_id
+    static String pageUrl(String closetUrl, int page) {
+        if (page == 1) {
+            return closetUrl;
+        }
+        return closetUrl + (closetUrl.contains("?") ? "&" : "?") + "max_id=" + page;
+    }
+
+    /**
+     * Reads the product tiles of a closet page with the same fields the browser scroller
+     * collects. Cards without a listing link are skipped.
+     */
+    public static List<ListingTile> parseTiles(Document document) {
+        List<ListingTile> tiles = new ArrayList<>();
+        for (Element tile : document.select(TILE_SELECTOR)) {
+            Element link = tile.selectFirst("div.card.card--small > a");
+            String href = link != null ? link.attr("href") : "";
+            if (href.isEmpty()) {
+                continue;
+            }
+            String productUrl = BASE_URL + href;
+            String title = text(tile, "a.tile__title");
+            String price = text(tile, "span.p--t--1.fw--bold");
+            String size = text(tile, "a.tile__details__pipe__size");
+            String availability = text(tile, "span.inventory-tag__text");
+            tiles.add(ListingTile.builder()
+                    .productId(ScraperUtility.extractProductIdFromUrl(productUrl))
+                    .productUrl(productUrl)
+                    .fingerprint(ScraperUtility.tileFingerprint(productUrl, title, price, size, availability))
+                    .title(title)
+                    .price(price)
+                    .size(size)
+                    .availability(availability)
+                    .build());
+        }
+        return tiles;
+    }
+
+    private static String text(Element tile, String selector) {
+        Element element = tile.selectFirst(selector);
+        return element != null ? element.text() : null;
+    }
+}
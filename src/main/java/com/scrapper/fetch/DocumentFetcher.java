@@ -0,0 +1,494 @@
+package com.scrapper.fetch;
+
+import com.scrapper.config.ScraperSettings;
+import com.scrapper.metrics.LatencyHistogram;
+import com.scrapper.metrics.Phase;
+import com.scrapper.model.ScrapingSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads listing pages through a {@link PageFetcher} backend with retries, and parses the
+ * body into a Jsoup {@link Document}.
+ * <p>
+ * Retries are scheduled rather than slept: each attempt runs on its own virtual thread and
+ * the back-off is a timer, so no thread waits between attempts. With a {@link RateController}
+ * every request's outcome is fed back to it and the back-off grows exponentially from its
+ * current request gap. A per-host {@link CircuitBreaker} fails requests fast while a host keeps
+ * failing. With hedging on, an attempt still running after the configured latency quantile
+ * gets a duplicate request; whichever answers first is used and the other is cancelled.
+ * <p>
+ * Every request, retries and hedges included, is sent through a {@link RequestGate}: the
+ * {@link FetchEngine}'s in-flight limit and host pacing by default, or the caller's lane.
+ * The gate is held only while a request is on the wire, never through a back-off.
+ */
+@Slf4j
+public class DocumentFetcher {
+    private static final int MAX_RETRIES = 3;
+    // Successful requests needed before the latency quantile is trusted for hedging
+    private static final int HEDGE_MIN_SAMPLES = 20;
+    private static final ScheduledExecutorService timers = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("fetch-timer").daemon().factory());
+    private static final ExecutorService requests = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("fetch-request-", 0).factory());
+
+    private final PageFetcher pageFetcher;
+    private final ResponseCache cache;
+    private final RateController rateController;
+    private final RequestGate gate;
+    private final CircuitBreaker circuitBreaker;
+    private final double hedgeQuantile;
+    private final LatencyHistogram requestLatency = new LatencyHistogram();
+    private final LongAdder hedgedRequests = new LongAdder();
+
+    public DocumentFetcher(PageFetcher pageFetcher) {
+        this(pageFetcher, null, null, circuitBreaker(ScraperSettings.defaults()), 0);
+    }
+
+    /**
+     * @param pageFetcher    backend that performs single requests
+     * @param cache          response cache, or null
+     * @param fetchEngine    engine whose rate controller hears every request and whose gate admits
+     *                       them by default, or null for ungated requests and fixed retry delays
+     * @param circuitBreaker per-host breaker consulted before every attempt
+     * @param hedgeQuantile  latency quantile after which an attempt is hedged, or 0 to never hedge
+     */
+    public DocumentFetcher(PageFetcher pageFetcher, ResponseCache cache, FetchEngine fetchEngine,
+                           CircuitBreaker circuitBreaker, double hedgeQuantile) {
+        this.pageFetcher = pageFetcher;
+        this.cache = cache;
+        this.rateController = fetchEngine != null ? fetchEngine.getRateController() : null;
+        this.gate = fetchEngine != null ? fetchEngine : RequestGate.OPEN;
+        this.circuitBreaker = circuitBreaker;
+        this.hedgeQuantile = hedgeQuantile;
+    }
+
+    // Pick the backend named by the scraper.fetchBackend setting
+    public static DocumentFetcher create(ScraperSettings settings) {
+        return create(settings, null);
+    }
+
+    /**
+     * @param settings    backend, cache, breaker and hedging settings
+     * @param fetchEngine engine that paces and reports every request, or null for ungated requests
+     */
+    public static DocumentFetcher create(ScraperSettings settings, FetchEngine fetchEngine) {
+        PageFetcher backend = "httpclient".equalsIgnoreCase(settings.getFetchBackend())
+                ? new HttpClientPageFetcher(settings)
+                : new JsoupPageFetcher();
+        ResponseCache cache = null;
+        if (settings.isResponseCache()) {
+            try {
+                cache = new ResponseCache(Path.of(settings.getCacheDir()),
+                        settings.getCacheMaxMegabytes() * 1024 * 1024,
+                        Duration.ofSeconds(settings.getCacheMaxAgeSeconds()));
+            } catch (IOException e) {
+                log.warn("Response cache disabled, could not open {}: {}", settings.getCacheDir(), e.getMessage());
+            }
+        }
+        return new DocumentFetcher(backend, cache, fetchEngine, circuitBreaker(settings),
+                settings.isHedgeRequests() ? settings.getHedgeQuantile() : 0);
+    }
+
+    private static CircuitBreaker circuitBreaker(ScraperSettings settings) {
+        return new CircuitBreaker(settings.getCircuitBreakerThreshold(),
+                Duration.ofSeconds(settings.getCircuitBreakerOpenSeconds()));
+    }
+
+    public String getBackendName() {
+        return pageFetcher.name();
+    }
+
+    // Duplicate requests sent because the first one was slower than the hedge quantile
+    public long getHedgedRequests() {
+        return hedgedRequests.sum();
+    }
+
+    // Publish hedging alongside a run's other metrics
+    public void registerGauges(ScrapingSummary summary) {
+        summary.registerGauge("poshmark_hedged_requests", "Duplicate requests sent for slow attempts",
+                this::getHedgedRequests);
+    }
+
+    // Fetch and parse a page with retry logic
+    public Document fetchDocument(String url) throws IOException {
+        return parse(fetch(url), url);
+    }
+
+    public Document parse(PageResponse response, String url) throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(response.getBody()), response.charsetName(), url);
+    }
+
+    // Fetch a page, retrying failed requests and non-2xx responses
+    public PageResponse fetch(String url) throws IOException {
+        return fetch(url, null);
+    }
+
+    /**
+     * Fetch a page, retrying failed requests and non-2xx responses, and wait for the result.
+     *
+     * @param url     page to load
+     * @param metrics summary that records request latency, retry back-off and bytes, or null
+     */
+    public PageResponse fetch(String url, ScrapingSummary metrics) throws IOException {
+        return fetch(url, metrics, gate);
+    }
+
+    /**
+     * Fetch a page, retrying failed requests and non-2xx responses, and wait for the result.
+     *
+     * @param url     page to load
+     * @param metrics summary that records request latency, retry back-off and bytes, or null
+     * @param gate    gate every request for the page passes through, e.g. the caller's lane
+     */
+    public PageResponse fetch(String url, ScrapingSummary metrics, RequestGate gate) throws IOException {
+        CompletableFuture<PageResponse> future = fetchAsync(url, metrics, gate);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + url);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    // Fetch a page without blocking the caller, through the default gate
+    public CompletableFuture<PageResponse> fetchAsync(String url, ScrapingSummary metrics) {
+        return fetchAsync(url, metrics, gate);
+    }
+
+    /**
+     * Fetch a page without blocking the caller. Cancelling the future cancels the request in
+     * flight and stops further retries.
+     *
+     * @param url     page to load
+     * @param metrics summary that records request latency, retry back-off and bytes, or null
+     * @param gate    gate every request for the page passes through, e.g. the caller's lane
+     * @return the successful (or revalidated) response, or an {@link IOException} once all attempts failed
+     */
+    public CompletableFuture<PageResponse> fetchAsync(String url, ScrapingSummary metrics, RequestGate gate) {
+        ResponseCache.CachedResponse cached = cache != null ? cache.get(url) : null;
+        if (cached != null && cached.isFresh(cache.getMaxAge())) {
+            try {
+                PageResponse response = cached.toResponse(url, "HIT");
+                log.debug("Serving {} from cache without revalidation", url);
+                return CompletableFuture.completedFuture(response);
+            } catch (IOException e) {
+                log.warn("Dropping unreadable cache entry for {}: {}", url, e.getMessage());
+                cache.invalidate(url);
+                cached = null;
+            }
+        }
+
+        // Ask the server to answer 304 if the cached copy is still current
+        Map<String, String> conditionalHeaders = new HashMap<>();
+        if (cached != null) {
+            if (cached.getEtag() != null) {
+                conditionalHeaders.put("If-None-Match", cached.getEtag());
+            }
+            if (cached.getLastModified() != null) {
+                conditionalHeaders.put("If-Modified-Since", cached.getLastModified());
+            }
+        }
+
+        Retrying retrying = new Retrying(url, metrics, gate, cached, conditionalHeaders);
+        retrying.attempt(1);
+        return retrying.result;
+    }
+
+    // One page fetch across all of its attempts
+    private class Retrying {
+        private final String url;
+        private final String host;
+        private final ScrapingSummary metrics;
+        private final RequestGate gate;
+        // Dropped, along with the validators, if its body is gone when the server answers 304
+        private volatile ResponseCache.CachedResponse cached;
+        private volatile Map<String, String> conditionalHeaders;
+        private final CompletableFuture<PageResponse> result = new CompletableFuture<>();
+        // Attempt in flight, cancelled along with the result
+        private volatile CompletableFuture<PageResponse> current;
+
+        private Retrying(String url, ScrapingSummary metrics, RequestGate gate, ResponseCache.CachedResponse cached,
+                         Map<String, String> conditionalHeaders) {
+            this.url = url;
+            this.host = HostPacer.hostOf(url);
+            this.metrics = metrics;
+            this.gate = gate;
+            this.cached = cached;
+            this.conditionalHeaders = conditionalHeaders;
+            result.whenComplete((response, error) -> {
+                if (result.isCancelled()) {
+                    cancelCurrent();
+                }
+            });
+        }
+
+        private void cancelCurrent() {
+            CompletableFuture<PageResponse> attempt = current;
+            if (attempt != null) {
+                attempt.cancel(true);
+            }
+        }
+
+        private void attempt(int attempt) {
+            if (result.isDone()) {
+                // Cancelled by the caller while the back-off was pending
+                return;
+            }
+            if (!circuitBreaker.allow(host)) {
+                result.completeExceptionally(new IOException("Circuit open for " + host + ", not fetching " + url));
+                return;
+            }
+            if (attempt > 1) {
+                log.warn("Retry attempt {}/{} ...", attempt, MAX_RETRIES);
+            }
+            current = hedged(url, conditionalHeaders, metrics, gate);
+            if (result.isCancelled()) {
+                cancelCurrent();
+                return;
+            }
+            current.whenComplete((response, error) -> {
+                if (result.isDone()) {
+                    // Cancelled by the caller; the attempt was cut short along with it
+                    return;
+                }
+                Throwable failure = error instanceof CompletionException ? error.getCause() : error;
+                if (failure == null) {
+                    try {
+                        result.complete(accept(response));
+                        return;
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                if (attempt < MAX_RETRIES) {
+                    long delay = backOffNanos(attempt + 1);
+                    log.warn("Attempt {}/{} failed for URL: {}; retrying in {} ms", attempt, MAX_RETRIES, url,
+                            TimeUnit.NANOSECONDS.toMillis(delay));
+                    long scheduledAt = System.nanoTime();
+                    timers.schedule(() -> {
+                        if (metrics != null) {
+                            metrics.record(Phase.RETRY, System.nanoTime() - scheduledAt);
+                        }
+                        attempt(attempt + 1);
+                    }, delay, TimeUnit.NANOSECONDS);
+                } else {
+                    log.error("All {} attempts failed for URL: {}", MAX_RETRIES, url);
+                    result.completeExceptionally(
+                            new IOException("Failed to fetch document after " + MAX_RETRIES + " attempts", failure));
+                }
+            });
+        }
+
+        // Turn a response into the page to return, or throw if it calls for a retry
+        private PageResponse accept(PageResponse response) throws IOException {
+            ResponseCache.CachedResponse revalidated = cached;
+            if (response.getStatusCode() == 304 && revalidated != null) {
+                try {
+                    PageResponse page = revalidated.toResponse(url, "REVALIDATED");
+                    cache.markRevalidated(url);
+                    return page;
+                } catch (IOException e) {
+                    // Evicted since the lookup; the next attempt asks for the full page
+                    cache.invalidate(url);
+                    cached = null;
+                    conditionalHeaders = Map.of();
+                    throw new IOException("Cached copy of " + url + " is gone after a 304", e);
+                }
+            }
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP status " + response.getStatusCode() + " for " + url);
+            }
+            if (cache != null) {
+                cache.put(url, response);
+            }
+            return response;
+        }
+    }
+
+    // Send a request, and a duplicate if it is still running once the hedge delay passes; the first good
+    // answer wins and the other request is cancelled
+    private CompletableFuture<PageResponse> hedged(String url, Map<String, String> headers, ScrapingSummary metrics,
+                                                   RequestGate gate) {
+        long hedgeAfter = hedgeDelayNanos();
+        CompletableFuture<Void> admitted = new CompletableFuture<>();
+        CompletableFuture<PageResponse> primary = send(url, headers, metrics, gate, admitted);
+        if (hedgeAfter <= 0) {
+            return primary;
+        }
+        CompletableFuture<PageResponse> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicReference<CompletableFuture<PageResponse>> duplicate = new AtomicReference<>();
+        AtomicReference<ScheduledFuture<?>> hedge = new AtomicReference<>();
+        race(primary, winner, pending);
+        // The delay is a wire-time quantile, so time it from when the gate lets the primary go, not from
+        // when it started waiting for its pacing slot
+        admitted.thenRun(() -> hedge.set(timers.schedule(() -> {
+            // No duplicate while the site has asked us to pause
+            if (winner.isDone() || (rateController != null && rateController.pausedUntilNanos() > System.nanoTime())) {
+                return;
+            }
+            pending.incrementAndGet();
+            hedgedRequests.increment();
+            log.debug("Hedging {} after {} ms", url, TimeUnit.NANOSECONDS.toMillis(hedgeAfter));
+            CompletableFuture<PageResponse> request = send(url, headers, metrics, gate, new CompletableFuture<>());
+            duplicate.set(request);
+            race(request, winner, pending);
+            if (winner.isDone()) {
+                request.cancel(true);
+            }
+        }, hedgeAfter, TimeUnit.NANOSECONDS)));
+        winner.whenComplete((response, error) -> {
+            ScheduledFuture<?> timer = hedge.get();
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            primary.cancel(true);
+            CompletableFuture<PageResponse> request = duplicate.get();
+            if (request != null) {
+                request.cancel(true);
+            }
+        });
+        return winner;
+    }
+
+    // A usable response completes the race at once; otherwise the last request to finish decides it
+    private static void race(CompletableFuture<PageResponse> request, CompletableFuture<PageResponse> winner,
+                             AtomicInteger pending) {
+        request.whenComplete((response, error) -> {
+            if (error == null && (response.isSuccessful() || response.getStatusCode() == 304)) {
+                winner.complete(response);
+            } else if (pending.decrementAndGet() == 0) {
+                if (error != null) {
+                    winner.completeExceptionally(error);
+                } else {
+                    winner.complete(response);
+                }
+            }
+        });
+    }
+
+    // One request on its own virtual thread once the gate admits it, reported to the metrics, rate controller
+    // and breaker; admitted completes as the request leaves the gate, and cancelling the future interrupts it
+    private CompletableFuture<PageResponse> send(String url, Map<String, String> headers, ScrapingSummary metrics,
+                                                 RequestGate gate, CompletableFuture<Void> admitted) {
+        CompletableFuture<PageResponse> result = new CompletableFuture<>();
+        String host = HostPacer.hostOf(url);
+        Future<?> request = requests.submit(() -> {
+            boolean recorded = false;
+            try {
+                try {
+                    gate.enter(url);
+                } catch (InterruptedException e) {
+                    result.completeExceptionally(new InterruptedIOException("Cancelled before fetching " + url));
+                    return;
+                }
+                admitted.complete(null);
+                long start = System.nanoTime();
+                PageResponse response = null;
+                Throwable failure = null;
+                try {
+                    response = pageFetcher.fetch(url, headers);
+                    log.debug("Fetched {} via {} in {} ms (status {}, {} bytes)", url, pageFetcher.name(),
+                            TimeUnit.NANOSECONDS.toMillis(response.getElapsedNanos()),
+                            response.getStatusCode(), response.getBody().length);
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                } finally {
+                    gate.exit();
+                }
+                // A request cut short because it lost a hedge or was abandoned says nothing about the host;
+                // the others are recorded before completing, so a retry's back-off already reflects them
+                if (!result.isCancelled()) {
+                    record(url, response, System.nanoTime() - start, metrics);
+                    recorded = true;
+                }
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(response);
+                }
+            } finally {
+                // A half-open probe that never reports back would keep the circuit shut for good
+                if (!recorded) {
+                    circuitBreaker.abandonProbe(host);
+                }
+            }
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                request.cancel(true);
+                // Also covers a request cancelled before its task started
+                circuitBreaker.abandonProbe(host);
+            }
+        });
+        return result;
+    }
+
+    private void record(String url, PageResponse response, long elapsedNanos, ScrapingSummary metrics) {
+        if (metrics != null) {
+            metrics.record(Phase.FETCH, elapsedNanos);
+            if (response != null) {
+                metrics.addBytesDownloaded(response.getBody().length);
+            }
+        }
+        if (rateController != null) {
+            rateController.onResponse(response, elapsedNanos);
+        }
+        // Only the host being down or overloaded counts against the breaker, not a missing listing
+        String host = HostPacer.hostOf(url);
+        int status = response != null ? response.getStatusCode() : 0;
+        if (status == 0 || status == 429 || status >= 500) {
+            circuitBreaker.onFailure(host);
+        } else {
+            circuitBreaker.onSuccess(host);
+        }
+        if (response != null && response.isSuccessful()) {
+            requestLatency.recordNanos(elapsedNanos);
+        }
+    }
+
+    // How long a request may run before it is hedged, or 0 while hedging is off or latency is still unknown
+    private long hedgeDelayNanos() {
+        if (hedgeQuantile <= 0 || requestLatency.getCount() < HEDGE_MIN_SAMPLES) {
+            return 0;
+        }
+        return Math.max(1, (long) (requestLatency.quantileSeconds(hedgeQuantile) * 1e9));
+    }
+
+    // Wait before the given attempt: the current request gap doubled per attempt with jitter,
+    // and never before a Retry-After pause is over
+    private long backOffNanos(int attempt) {
+        if (rateController == null) {
+            return ThreadLocalRandom.current().nextLong(TimeUnit.SECONDS.toNanos(2), TimeUnit.SECONDS.toNanos(7) + 1);
+        }
+        long ceiling = rateController.nextGapNanos() << (attempt - 1);
+        long wait = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        return Math.max(wait, rateController.pausedUntilNanos() - System.nanoTime());
+    }
+}
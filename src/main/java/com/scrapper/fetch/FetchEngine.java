@@ -0,0 +1,149 @@
+package com.scrapper.fetch;
+
+import com.scrapper.config.ScraperSettings;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Runs one task per product URL on its own virtual thread.
+ * Requests are capped by the {@link RateController}'s current in-flight limit and spaced per
+ * host by a {@link HostPacer} at the controller's current rate, so throughput follows what
+ * the site tolerates rather than the core count. The engine is the {@link RequestGate} that
+ * applies both; tasks pass it, or their lane, to {@link DocumentFetcher} so that retries and
+ * hedges wait their turn like first attempts.
+ * <p>
+ * Work is submitted through {@link Lane}s, one per closet. Each lane lets at most its cap of
+ * requests wait for or hold the shared in-flight limit, which admits waiting requests
+ * strictly in arrival order, so a large closet cannot starve a small one. A lane runs up to
+ * twice its cap of tasks, so a task waiting out a retry back-off does not idle the lane.
+ */
+@Slf4j
+public class FetchEngine implements RequestGate {
+    private final RateController rateController;
+    private final HostPacer pacer;
+    private final int maxInFlight;
+
+    public FetchEngine(ScraperSettings settings) {
+        this(settings, new RateController(settings));
+    }
+
+    public FetchEngine(ScraperSettings settings, RateController rateController) {
+        this.maxInFlight = Math.max(1, settings.getMaxInFlight());
+        this.rateController = rateController;
+        this.pacer = new HostPacer(rateController);
+    }
+
+    public RateController getRateController() {
+        return rateController;
+    }
+
+    // Pacer shared by everything that loads pages, browser renders included
+    public HostPacer getPacer() {
+        return pacer;
+    }
+
+    // Take an in-flight slot, then wait for the host's next start slot
+    @Override
+    public void enter(String url) throws InterruptedException {
+        rateController.acquire();
+        try {
+            // Take the host slot only once a fetch slot is held, so the gap is not spent queueing
+            pacer.await(url);
+        } catch (InterruptedException e) {
+            rateController.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void exit() {
+        rateController.release();
+    }
+
+    /**
+     * Runs the task for every URL and returns once all of them have finished.
+     * Tasks are expected to handle their own failures.
+     *
+     * @param urls URLs to process
+     * @param task work to run for each URL
+     */
+    public void forEach(Iterable<String> urls, Consumer<String> task) {
+        lane("default", maxInFlight).forEach(urls, task);
+    }
+
+    // Create a lane whose requests share this engine's in-flight limit and host pacing
+    public Lane lane(String name, int maxInFlight) {
+        return new Lane(name, Math.max(1, Math.min(maxInFlight, this.maxInFlight)));
+    }
+
+    public class Lane implements RequestGate {
+        private final String name;
+        private final Semaphore requests;
+        private final Semaphore tasks;
+
+        private Lane(String name, int maxInFlight) {
+            this.name = name;
+            this.requests = new Semaphore(maxInFlight, true);
+            this.tasks = new Semaphore(2 * maxInFlight, true);
+        }
+
+        // Take one of this lane's request slots, then the engine's
+        @Override
+        public void enter(String url) throws InterruptedException {
+            requests.acquire();
+            try {
+                FetchEngine.this.enter(url);
+            } catch (InterruptedException e) {
+                requests.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void exit() {
+            FetchEngine.this.exit();
+            requests.release();
+        }
+
+        /**
+         * Runs the task for every URL in this lane and returns once all of them have finished.
+         * Iteration pauses while the lane has twice its cap of tasks running.
+         *
+         * @param urls URLs to process
+         * @param task work to run for each URL
+         */
+        public void forEach(Iterable<String> urls, Consumer<String> task) {
+            try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("fetch-" + name + "-", 1).factory())) {
+                for (String url : urls) {
+                    try {
+                        tasks.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        log.warn("Lane {} cancelled before {}", name, url);
+                        break;
+                    }
+                    executor.execute(() -> {
+                        try {
+                            run(url, task);
+                        } finally {
+                            tasks.release();
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    private void run(String url, Consumer<String> task) {
+        try {
+            task.accept(url);
+        } catch (Exception e) {
+            log.error("Unhandled error for URL {}: {}", url, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.scrapper.fetch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spaces out requests to the same host by handing every caller its own start slot.
+ * Callers park until their slot comes up; on a virtual thread that unmounts the
+ * carrier, so waiting for politeness never ties up a platform thread.
+ */
+@Slf4j
+public class HostPacer {
+    private final RateController rateController;
+    private final ConcurrentHashMap<String, AtomicLong> nextSlots = new ConcurrentHashMap<>();
+
+    public HostPacer(RateController rateController) {
+        this.rateController = rateController;
+    }
+
+    // Block until the caller may send its next request to the host of the given URL
+    public void await(String url) throws InterruptedException {
+        long gap = rateController.nextGapNanos();
+        AtomicLong nextSlot = nextSlots.computeIfAbsent(hostOf(url), host -> new AtomicLong(System.nanoTime()));
+        // Nobody starts before a Retry-After pause is over
+        long now = Math.max(System.nanoTime(), rateController.pausedUntilNanos());
+        long slot = Math.max(nextSlot.getAndUpdate(previous -> Math.max(previous, now) + gap), now);
+        long waitNanos = slot - System.nanoTime();
+        if (waitNanos > 0) {
+            Thread.sleep(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : "";
+        } catch (IllegalArgumentException e) {
+            log.warn("Could not extract host from URL: {}", url);
+            return "";
+        }
+    }
+}
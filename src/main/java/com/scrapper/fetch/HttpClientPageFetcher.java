@@ -0,0 +1,144 @@
+package com.scrapper.fetch;
+
+import com.scrapper.config.ScraperSettings;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Fetches pages through one shared {@link HttpClient}. Connections are pooled and reused,
+ * HTTP/2 streams are multiplexed over a single TLS session per host, and gzip/deflate
+ * bodies are decoded here because the JDK client does not do it on its own.
+ */
+@Slf4j
+public class HttpClientPageFetcher implements PageFetcher {
+    private static volatile HttpClient sharedClient;
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+
+    public HttpClientPageFetcher(ScraperSettings settings) {
+        this.client = sharedClient(settings);
+        this.requestTimeout = Duration.ofSeconds(15);
+    }
+
+    // All fetchers share one client so the connection pool and TLS sessions are reused
+    private static HttpClient sharedClient(ScraperSettings settings) {
+        HttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (HttpClientPageFetcher.class) {
+                client = sharedClient;
+                if (client == null) {
+                    // The JDK reads its pool limits from system properties when the first client is built
+                    setIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(settings.getHttpConnectionPoolSize()));
+                    setIfAbsent("jdk.httpclient.keepalive.timeout", String.valueOf(settings.getHttpKeepAliveSeconds()));
+                    client = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_2)
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .connectTimeout(Duration.ofSeconds(10))
+                            .executor(Executors.newVirtualThreadPerTaskExecutor())
+                            .build();
+                    sharedClient = client;
+                    log.info("Created shared HTTP/2 client (pool size {}, keep-alive {}s)",
+                            settings.getHttpConnectionPoolSize(), settings.getHttpKeepAliveSeconds());
+                }
+            }
+        }
+        return client;
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "httpclient";
+    }
+
+    @Override
+    public PageResponse fetch(String url, Map<String, String> extraHeaders) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("User-Agent", RequestHeaders.randomUserAgent())
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET();
+        RequestHeaders.documentHeaders().forEach(request::header);
+        extraHeaders.forEach(request::header);
+
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + url);
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        response.headers().map().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name.toLowerCase(Locale.ROOT), values.get(0));
+            }
+        });
+        byte[] body = decode(response.body(), headers.remove("content-encoding"));
+        return PageResponse.builder()
+                .url(url)
+                .statusCode(response.statusCode())
+                .body(body)
+                .headers(headers)
+                .elapsedNanos(System.nanoTime() - start)
+                .build();
+    }
+
+    // Undo the Content-Encoding the server applied
+    private static byte[] decode(byte[] body, String contentEncoding) throws IOException {
+        if (contentEncoding == null || body.length == 0) {
+            return body;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (!List.of("gzip", "x-gzip", "deflate").contains(encoding)) {
+            return body;
+        }
+        if (!encoding.equals("deflate")) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                return in.readAllBytes();
+            }
+        }
+        try {
+            return inflate(body, false);
+        } catch (ZipException e) {
+            // Some servers send raw deflate data without the zlib wrapper
+            return inflate(body, true);
+        }
+    }
+
+    private static byte[] inflate(byte[] body, boolean nowrap) throws IOException {
+        // InflaterInputStream only ends inflaters it created itself, so free the native memory here
+        Inflater inflater = new Inflater(nowrap);
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(body), inflater)) {
+            return in.readAllBytes();
+        } finally {
+            inflater.end();
+        }
+    }
+}
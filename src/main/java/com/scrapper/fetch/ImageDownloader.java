@@ -0,0 +1,254 @@
+package com.scrapper.fetch;
+
+import com.scrapper.model.Product;
+import com.scrapper.model.ScrapingSummary;
+import com.scrapper.store.ImageStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Downloads listing images in the background into an {@link ImageStore}.
+ * Each image runs on its own virtual thread, with a cap on concurrent downloads and a
+ * shared {@link BandwidthLimiter} over all of them. Bodies are streamed in fixed-size
+ * chunks into a {@link FileChannel} and hashed on the way, so an image is never held in
+ * memory as a whole. URLs already in the store, or already being downloaded, are skipped.
+ * Images are queued per {@link Run}, so each scrape can wait for just its own downloads.
+ */
+@Slf4j
+public class ImageDownloader implements AutoCloseable {
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final ImageStore store;
+    private final ImageVariant variant;
+    private final Semaphore slots;
+    private final BandwidthLimiter bandwidth;
+    private final HttpClient client;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("image-", 0).factory());
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+    // Every image queued by any run, awaited on close
+    private final Run all = new Run();
+
+    private final LongAdder downloaded = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * @param store             where downloaded images are kept
+     * @param variant           image size to download
+     * @param maxConcurrent     downloads allowed to run at the same time
+     * @param maxBytesPerSecond combined download rate, or 0 for no cap
+     */
+    public ImageDownloader(ImageStore store, ImageVariant variant, int maxConcurrent, long maxBytesPerSecond) {
+        this.store = store;
+        this.variant = variant;
+        this.slots = new Semaphore(Math.max(1, maxConcurrent));
+        this.bandwidth = new BandwidthLimiter(maxBytesPerSecond);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Images queued by one scrape. Runs sharing a downloader, like the closets of a batch,
+     * each wait only for what they queued themselves.
+     */
+    public static class Run {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition idle = lock.newCondition();
+        private int pending;
+
+        private void started() {
+            lock.lock();
+            try {
+                pending++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finished() {
+            lock.lock();
+            try {
+                if (--pending == 0) {
+                    idle.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Wait until every image queued for this run has been downloaded or has failed
+        public void awaitIdle() throws InterruptedException {
+            lock.lock();
+            try {
+                while (pending > 0) {
+                    idle.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Start tracking the images of one scrape
+    public Run newRun() {
+        return new Run();
+    }
+
+    // Queue every image of a product that is not stored yet for the given run; returns without waiting
+    public void submit(Product product, Run run) {
+        if (product.getImageUrls() == null) {
+            return;
+        }
+        for (String listedUrl : product.getImageUrls()) {
+            if (listedUrl == null || listedUrl.isBlank()) {
+                continue;
+            }
+            String url = variant.apply(listedUrl);
+            if (store.fileFor(url) != null || !inProgress.add(url)) {
+                skipped.increment();
+                continue;
+            }
+            run.started();
+            all.started();
+            executor.execute(() -> {
+                try {
+                    download(url);
+                } finally {
+                    inProgress.remove(url);
+                    run.finished();
+                    all.finished();
+                }
+            });
+        }
+    }
+
+    private void download(String url) {
+        Path temp = null;
+        try {
+            slots.acquire();
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                        .timeout(Duration.ofSeconds(30))
+                        .header("User-Agent", RequestHeaders.randomUserAgent())
+                        .GET()
+                        .build();
+                HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    if (response.statusCode() != 200) {
+                        failed.increment();
+                        log.warn("Image {} answered HTTP {}", url, response.statusCode());
+                        return;
+                    }
+                    temp = store.newTempFile();
+                    String sha256 = copy(body, temp);
+                    ImageStore.Stored stored = store.store(url, temp, sha256);
+                    temp = null;
+                    (stored.duplicate() ? duplicates : downloaded).increment();
+                    log.debug("Stored image {} as {}{}", url, stored.file(), stored.duplicate() ? " (duplicate)" : "");
+                }
+            } finally {
+                slots.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Could not download image {}: {}", url, e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.debug("Could not delete partial download {}", temp);
+                }
+            }
+        }
+    }
+
+    // Stream the body to the file chunk by chunk under the bandwidth cap, returning its SHA-256
+    private String copy(InputStream body, Path file) throws IOException, InterruptedException {
+        MessageDigest digest = sha256();
+        byte[] chunk = new byte[CHUNK_BYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int read;
+            while ((read = body.read(chunk)) != -1) {
+                bandwidth.acquire(read);
+                digest.update(chunk, 0, read);
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                bytes.add(read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Publish download counts alongside a run's other metrics
+    public void registerGauges(ScrapingSummary summary) {
+        summary.registerGauge("poshmark_images_downloaded", "Images downloaded and stored", downloaded::sum);
+        summary.registerGauge("poshmark_images_duplicate", "Images downloaded whose bytes were already stored",
+                duplicates::sum);
+        summary.registerGauge("poshmark_images_skipped", "Image URLs already stored or being downloaded",
+                skipped::sum);
+        summary.registerGauge("poshmark_images_failed", "Images that could not be downloaded", failed::sum);
+        summary.registerGauge("poshmark_image_bytes", "Image bytes downloaded", bytes::sum);
+    }
+
+    @Override
+    public void close() {
+        try {
+            all.awaitIdle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Images: {} downloaded, {} duplicates, {} skipped, {} failed, {} KB", downloaded.sum(),
+                duplicates.sum(), skipped.sum(), failed.sum(), bytes.sum() / 1024);
+        executor.close();
+        try {
+            store.close();
+        } catch (IOException e) {
+            log.warn("Could not close image store: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.scrapper.fetch;
+
+import java.util.Locale;
+
+/**
+ * Size of a listing image to download. The CDN names every size of a picture after the
+ * same file, with an {@code s_} prefix for the thumbnail, {@code m_} for the medium size
+ * shown on listing pages, and no prefix for the full-size original.
+ */
+public enum ImageVariant {
+    AS_LISTED,  // Whatever URL the listing page used
+    THUMBNAIL,
+    FULL;
+
+    public static ImageVariant fromSetting(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "thumbnail", "s" -> THUMBNAIL;
+            case "full", "original" -> FULL;
+            case "as_listed", "listed" -> AS_LISTED;
+            default -> throw new IllegalArgumentException("Unknown image variant: " + value);
+        };
+    }
+
+    // Rewrite the file name of a CDN image URL to this variant
+    public String apply(String imageUrl) {
+        if (this == AS_LISTED) {
+            return imageUrl;
+        }
+        int end = imageUrl.indexOf('?');
+        end = end < 0 ? imageUrl.length() : end;
+        int slash = imageUrl.lastIndexOf('/', end - 1);
+        if (slash < 0) {
+            return imageUrl;
+        }
+        String file = imageUrl.substring(slash + 1, end);
+        if (file.startsWith("s_") || file.startsWith("m_")) {
+            file = file.substring(2);
+        }
+        String prefix = this == THUMBNAIL ? "s_" : "";
+        return imageUrl.substring(0, slash + 1) + prefix + file + imageUrl.substring(end);
+    }
+}
@@ -0,0 +1,44 @@
+package com.scrapper.fetch;
+
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fetches pages with {@link Jsoup#connect(String)}, opening a new connection per request.
+ */
+public class JsoupPageFetcher implements PageFetcher {
+
+    @Override
+    public String name() {
+        return "jsoup";
+    }
+
+    @Override
+    public PageResponse fetch(String url, Map<String, String> extraHeaders) throws IOException {
+        long start = System.nanoTime();
+        Connection.Response response = Jsoup.connect(url)
+                .userAgent(RequestHeaders.randomUserAgent())
+                .timeout(10000 + ThreadLocalRandom.current().nextInt(5000)) // Random timeout between 10-15s
+                .headers(RequestHeaders.documentHeaders())
+                .headers(extraHeaders)
+                .ignoreHttpErrors(true)
+                .execute();
+
+        byte[] body = response.bodyAsBytes();
+        Map<String, String> headers = new HashMap<>();
+        response.headers().forEach((name, value) -> headers.put(name.toLowerCase(Locale.ROOT), value));
+        return PageResponse.builder()
+                .url(url)
+                .statusCode(response.statusCode())
+                .body(body)
+                .headers(headers)
+                .elapsedNanos(System.nanoTime() - start)
+                .build();
+    }
+}
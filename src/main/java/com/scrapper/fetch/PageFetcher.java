@@ -0,0 +1,15 @@
+package com.scrapper.fetch;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Backend that performs a single HTTP GET for a page. Implementations do not retry and do
+ * not treat error status codes as failures; that is left to {@link DocumentFetcher}.
+ */
+public interface PageFetcher {
+    // Short name used in logs and settings
+    String name();
+
+    PageResponse fetch(String url, Map<String, String> extraHeaders) throws IOException;
+}
@@ -0,0 +1,52 @@
+package com.scrapper.fetch;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Raw result of a single page request: status, decoded body bytes and response headers.
+ * Header names are stored in lower case.
+ */
+@Value
+@Builder
+public class PageResponse {
+    String url;
+    int statusCode;
+    byte[] body;
+    Map<String, String> headers;
+    long elapsedNanos;
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    public String header(String name) {
+        return headers == null ? null : headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    // Charset named in the Content-Type header, or null to let the parser detect it
+    public String charsetName() {
+        String contentType = header("content-type");
+        if (contentType == null) {
+            return null;
+        }
+        for (String part : contentType.split(";")) {
+            String trimmed = part.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                String name = trimmed.substring(8).replace("\"", "").trim();
+                try {
+                    return Charset.forName(name).name();
+                } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
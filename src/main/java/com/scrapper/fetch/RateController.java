@@ -0,0 +1,297 @@
+package com.scrapper.fetch;
+
+import com.scrapper.config.ScraperSettings;
+import com.scrapper.model.ScrapingSummary;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Finds the fastest pace the site tolerates with additive-increase/multiplicative-decrease.
+ * Every response that comes back quickly raises the in-flight limit by about one per round
+ * trip and the request rate by a small step. A 429, 403 or 503 halves both, at most once
+ * per cool-down, and a {@code Retry-After} pauses new requests until it expires. Recent
+ * latency well above the long-run average counts as early congestion and backs off gently.
+ * <p>
+ * With adaptive control disabled the controller keeps the configured in-flight limit and
+ * the random gap between {@code minHostDelayMs} and {@code maxHostDelayMs}.
+ */
+@Slf4j
+public class RateController {
+    private static final double THROTTLE_DECREASE = 0.5;
+    private static final double CONGESTION_DECREASE = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final int LATENCY_WARMUP = 20;
+    private static final long COOL_DOWN_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long DEFAULT_RETRY_AFTER_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final boolean adaptive;
+    private final int maxLimit;
+    private final double minRate;
+    private final double maxRate;
+    private final double rateStep;
+    private final long fixedMinGapNanos;
+    private final long fixedMaxGapNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Condition> waiters = new ArrayDeque<>();
+    private double limit;
+    private double rate;
+    private int inFlight;
+    private long lastDecreaseNanos;
+    // Recent and long-run average latency; recent running well above long-run means congestion
+    private double recentLatencyNanos;
+    private double baselineLatencyNanos;
+    private long successes;
+    private final AtomicLong pausedUntilNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong throttleEvents = new AtomicLong();
+
+    public RateController(ScraperSettings settings) {
+        this.adaptive = settings.isAdaptiveRate();
+        this.maxLimit = Math.max(1, settings.getMaxInFlight());
+        this.fixedMinGapNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, settings.getMinHostDelayMs()));
+        this.fixedMaxGapNanos = Math.max(fixedMinGapNanos, TimeUnit.MILLISECONDS.toNanos(settings.getMaxHostDelayMs()));
+        this.maxRate = Math.max(0.01, settings.getMaxRequestsPerSecond());
+        this.minRate = Math.min(maxRate, Math.max(0.01, settings.getMinRequestsPerSecond()));
+        this.rateStep = settings.getRateIncreaseStep();
+        // Start from the configured static pace and a quarter of the in-flight ceiling
+        double averageGapSeconds = (fixedMinGapNanos + fixedMaxGapNanos) / 2e9;
+        this.rate = clamp(averageGapSeconds > 0 ? 1 / averageGapSeconds : maxRate, minRate, maxRate);
+        this.limit = adaptive ? Math.max(1, maxLimit / 4.0) : maxLimit;
+    }
+
+    // Wait for an in-flight slot under the current limit; waiters are admitted in arrival order
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (waiters.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                return;
+            }
+            Condition turn = lock.newCondition();
+            waiters.addLast(turn);
+            try {
+                while (waiters.peekFirst() != turn || inFlight >= currentLimit()) {
+                    turn.await();
+                }
+            } catch (InterruptedException e) {
+                waiters.remove(turn);
+                signalNext();
+                throw e;
+            }
+            waiters.removeFirst();
+            inFlight++;
+            // A raised limit may have room for the next waiter as well
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Wake the longest waiter if there is room for it; caller holds the lock
+    private void signalNext() {
+        Condition next = waiters.peekFirst();
+        if (next != null && inFlight < currentLimit()) {
+            next.signal();
+        }
+    }
+
+    // Gap to leave before the next request to one host, with some jitter
+    public long nextGapNanos() {
+        if (!adaptive) {
+            return fixedMinGapNanos == fixedMaxGapNanos
+                    ? fixedMinGapNanos
+                    : ThreadLocalRandom.current().nextLong(fixedMinGapNanos, fixedMaxGapNanos + 1);
+        }
+        double meanGapNanos = 1e9 / getRate();
+        return (long) (meanGapNanos * ThreadLocalRandom.current().nextDouble(0.75, 1.25));
+    }
+
+    // No request may start before this instant, set by Retry-After
+    public long pausedUntilNanos() {
+        return pausedUntilNanos.get();
+    }
+
+    /**
+     * Feed back the outcome of one request.
+     *
+     * @param response     the response, or null if the request failed without one
+     * @param elapsedNanos time the request took
+     */
+    public void onResponse(PageResponse response, long elapsedNanos) {
+        if (response == null) {
+            onFailure();
+            return;
+        }
+        onStatus(response.getStatusCode(), response.header("retry-after"), elapsedNanos);
+    }
+
+    /**
+     * Feed back the outcome of a request made outside a {@link PageFetcher}, such as a browser navigation.
+     *
+     * @param status       HTTP status code, or 0 if the request failed without one
+     * @param retryAfter   value of the Retry-After header, or null
+     * @param elapsedNanos time the request took
+     */
+    public void onStatus(int status, String retryAfter, long elapsedNanos) {
+        if (status == 429 || status == 403 || status == 503) {
+            onThrottled(status, retryAfterNanos(retryAfter));
+        } else if (status == 0 || status >= 500) {
+            onFailure();
+        } else {
+            onSuccess(elapsedNanos);
+        }
+    }
+
+    private void onSuccess(long elapsedNanos) {
+        if (!adaptive) {
+            return;
+        }
+        lock.lock();
+        try {
+            successes++;
+            recentLatencyNanos = successes == 1 ? elapsedNanos : recentLatencyNanos + 0.3 * (elapsedNanos - recentLatencyNanos);
+            baselineLatencyNanos = successes == 1 ? elapsedNanos
+                    : baselineLatencyNanos + 0.02 * (elapsedNanos - baselineLatencyNanos);
+            if (successes > LATENCY_WARMUP && recentLatencyNanos > baselineLatencyNanos * LATENCY_TOLERANCE) {
+                // Slowing responses are the first sign of load; ease off before the site says so
+                decrease(CONGESTION_DECREASE, String.format("latency %.0f ms against %.0f ms usual",
+                        recentLatencyNanos / 1e6, baselineLatencyNanos / 1e6));
+                return;
+            }
+            limit = Math.min(maxLimit, limit + 1 / limit);
+            rate = Math.min(maxRate, rate + rateStep);
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onFailure() {
+        if (!adaptive) {
+            return;
+        }
+        lock.lock();
+        try {
+            decrease(CONGESTION_DECREASE, "request failure");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onThrottled(int status, long retryAfterNanos) {
+        throttleEvents.incrementAndGet();
+        long resumeAt = System.nanoTime() + retryAfterNanos;
+        pausedUntilNanos.accumulateAndGet(resumeAt, Math::max);
+        log.warn("Server answered {}; pausing new requests for {} s", status,
+                TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos));
+        if (!adaptive) {
+            return;
+        }
+        lock.lock();
+        try {
+            decrease(THROTTLE_DECREASE, "HTTP " + status);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Multiplicative decrease, at most once per cool-down so one burst of errors counts once
+    private void decrease(double factor, String reason) {
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos < COOL_DOWN_NANOS) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(1, limit * factor);
+        rate = Math.max(minRate, rate * factor);
+        log.info("Backing off after {}: {} in flight, {} requests/s", reason, currentLimit(),
+                String.format("%.2f", rate));
+    }
+
+    // Retry-After is either delta-seconds or an HTTP date
+    static long retryAfterNanos(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime until = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(), until).toNanos());
+            } catch (DateTimeParseException ignored) {
+                return DEFAULT_RETRY_AFTER_NANOS;
+            }
+        }
+    }
+
+    public int currentLimit() {
+        lock.lock();
+        try {
+            return (int) Math.floor(limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Requests per second per host
+    public double getRate() {
+        if (!adaptive) {
+            return 2e9 / (fixedMinGapNanos + fixedMaxGapNanos + 1);
+        }
+        lock.lock();
+        try {
+            return rate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getThrottleEvents() {
+        return throttleEvents.get();
+    }
+
+    // Publish the controller's current state alongside a run's other metrics
+    public void registerGauges(ScrapingSummary summary) {
+        summary.registerGauge("poshmark_concurrency_limit", "Product fetches currently allowed in flight",
+                this::currentLimit);
+        summary.registerGauge("poshmark_request_rate", "Current request rate per host, in requests per second",
+                this::getRate);
+        summary.registerGauge("poshmark_requests_in_flight", "Product fetches in flight right now", this::getInFlight);
+        summary.registerGauge("poshmark_throttle_events", "Responses that asked the scraper to slow down",
+                this::getThrottleEvents);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
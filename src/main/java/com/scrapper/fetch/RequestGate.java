@@ -0,0 +1,25 @@
+package com.scrapper.fetch;
+
+/**
+ * Admits single requests. {@link DocumentFetcher} passes every request it sends through a
+ * gate, retries and hedges included, and holds the gate only while the request is on the
+ * wire, never through a retry back-off.
+ */
+public interface RequestGate {
+    // Gate that admits every request at once
+    RequestGate OPEN = new RequestGate() {
+        @Override
+        public void enter(String url) {
+        }
+
+        @Override
+        public void exit() {
+        }
+    };
+
+    // Block until a request to the given URL may be sent
+    void enter(String url) throws InterruptedException;
+
+    // Called once for every successful enter, after the request has finished
+    void exit();
+}
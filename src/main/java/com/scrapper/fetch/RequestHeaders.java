@@ -0,0 +1,50 @@
+package com.scrapper.fetch;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Browser-like request headers shared by every page fetch backend.
+ */
+@UtilityClass
+public class RequestHeaders {
+    private static final String[] USER_AGENTS = {
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/16.4 Safari/605.1.15",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36 Edg/120.0.0.0",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/139.0.0.0 Safari/537.36"
+    };
+
+    private static final Map<String, String> DOCUMENT_HEADERS = createDocumentHeaders();
+
+    public static String randomUserAgent() {
+        return USER_AGENTS[ThreadLocalRandom.current().nextInt(USER_AGENTS.length)];
+    }
+
+    // Headers sent with every listing page request, in the order a browser sends them
+    public static Map<String, String> documentHeaders() {
+        return DOCUMENT_HEADERS;
+    }
+
+    private static Map<String, String> createDocumentHeaders() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,image/apng,*/*;q=0.8,application/signed-exchange;v=b3;q=0.7");
+        headers.put("accept-language", "en-US,en;q=0.9,hi;q=0.8");
+        headers.put("priority", "u=0, i");
+        headers.put("sec-ch-ua", "\"Not;A=Brand\";v=\"99\", \"Google Chrome\";v=\"139\", \"Chromium\";v=\"139\"");
+        headers.put("sec-ch-ua-mobile", "?0");
+        headers.put("sec-ch-ua-platform", "\"macOS\"");
+        headers.put("sec-fetch-dest", "document");
+        headers.put("sec-fetch-mode", "navigate");
+        headers.put("sec-fetch-site", "none");
+        headers.put("sec-fetch-user", "?1");
+        headers.put("upgrade-insecure-requests", "1");
+        headers.put("Cookie", "_csrf=Es9WIOgVYOA7c9PG5Kv88BBk; esid=sift%3A68a08d0b28eb2753945f5a19; ps=%7B%22bid%22%3A%2268a08d0b28eb2753945f5a18%22%2C%22extvid%22%3A%22ext1%3A78674df7-a237-4534-b2e3-48aa6d391e21%22%7D; vsegv3=eyJsMDEiOiIwNDQiLCJsMDIiOiIwNjUiLCJsMDMiOiIxMjgiLCJsMDQiOiIxMDkiLCJsMDUiOiIwNTEiLCJsMDYiOiIwMzUiLCJsMDciOiIwMDQiLCJsMDgiOiIxMjMifQ%3D%3D");
+        return Collections.unmodifiableMap(headers);
+    }
+}
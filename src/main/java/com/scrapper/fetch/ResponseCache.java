@@ -0,0 +1,319 @@
+package com.scrapper.fetch;
+
+import com.scrapper.util.ScraperUtility;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk cache of listing page responses keyed by product ID.
+ * Each entry is a gzip-compressed body plus a small metadata file with the ETag and
+ * Last-Modified validators. The total size of stored bodies is bounded; the least
+ * recently used entries are evicted first. A lookup only reads the metadata; the body is
+ * read and decompressed once the entry is used, i.e. it is fresh or the server answered 304.
+ * Temp files left behind by a crashed write are removed when the cache is opened.
+ */
+@Slf4j
+public class ResponseCache {
+    private static final String BODY_SUFFIX = ".body.gz";
+    private static final String META_SUFFIX = ".meta";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // Temp files younger than this may belong to a write still in progress in another process
+    private static final Duration ORPHAN_AGE = Duration.ofMinutes(1);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration maxAge;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Key -> stored body size, kept in access order for LRU eviction
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public ResponseCache(Path directory, long maxBytes, Duration maxAge) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+        Files.createDirectories(directory);
+        loadIndex();
+    }
+
+    @Value
+    @Builder
+    public static class CachedResponse {
+        String etag;
+        String lastModified;
+        String contentType;
+        Instant storedAt;
+        Path bodyFile;
+
+        // True when the entry is young enough to be used without asking the server
+        public boolean isFresh(Duration maxAge) {
+            return !maxAge.isZero() && storedAt.plus(maxAge).isAfter(Instant.now());
+        }
+
+        // Read the stored body; fails if the entry was evicted since it was looked up
+        public PageResponse toResponse(String url, String cacheStatus) throws IOException {
+            byte[] body;
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(bodyFile))) {
+                body = in.readAllBytes();
+            }
+            Map<String, String> headers = new HashMap<>();
+            if (contentType != null) {
+                headers.put("content-type", contentType);
+            }
+            headers.put("x-cache", cacheStatus);
+            return PageResponse.builder()
+                    .url(url)
+                    .statusCode(200)
+                    .body(body)
+                    .headers(headers)
+                    .build();
+        }
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    // Look up the validators of the cached response for a listing URL, or null if it is not cached
+    public CachedResponse get(String url) {
+        String key = keyFor(url);
+        lock.lock();
+        try {
+            if (!entries.containsKey(key)) {
+                return null;
+            }
+            entries.get(key); // Mark as recently used
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            Properties meta = readMeta(key);
+            Files.setLastModifiedTime(metaPath(key), FileTime.from(Instant.now()));
+            return CachedResponse.builder()
+                    .etag(meta.getProperty("etag"))
+                    .lastModified(meta.getProperty("lastModified"))
+                    .contentType(meta.getProperty("contentType"))
+                    .storedAt(Instant.ofEpochMilli(Long.parseLong(meta.getProperty("storedAt", "0"))))
+                    .bodyFile(bodyPath(key))
+                    .build();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Dropping unreadable cache entry {}: {}", key, e.getMessage());
+            remove(key);
+            return null;
+        }
+    }
+
+    // Store a successful response that carries at least one validator
+    public void put(String url, PageResponse response) {
+        String etag = response.header("etag");
+        String lastModified = response.header("last-modified");
+        if (etag == null && lastModified == null && maxAge.isZero()) {
+            // Nothing to revalidate with and never fresh, so caching would not save a request
+            return;
+        }
+
+        String key = keyFor(url);
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(response.getBody().length / 4 + 64);
+            try (OutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(response.getBody());
+            }
+            writeAtomically(bodyPath(key), compressed.toByteArray());
+
+            Properties meta = new Properties();
+            meta.setProperty("url", url);
+            meta.setProperty("storedAt", String.valueOf(System.currentTimeMillis()));
+            setIfPresent(meta, "etag", etag);
+            setIfPresent(meta, "lastModified", lastModified);
+            setIfPresent(meta, "contentType", response.header("content-type"));
+            writeMeta(key, meta);
+
+            record(key, compressed.size());
+        } catch (IOException e) {
+            log.warn("Could not cache response for {}: {}", url, e.getMessage());
+        }
+    }
+
+    // Drop the entry for a URL, e.g. because its body could not be read
+    public void invalidate(String url) {
+        remove(keyFor(url));
+    }
+
+    // The server confirmed the cached copy is current; restart its freshness window
+    public void markRevalidated(String url) {
+        String key = keyFor(url);
+        try {
+            Properties meta = readMeta(key);
+            meta.setProperty("storedAt", String.valueOf(System.currentTimeMillis()));
+            writeMeta(key, meta);
+        } catch (IOException e) {
+            log.warn("Could not refresh cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void record(String key, long size) {
+        List<String> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(this::deleteFiles);
+        if (!evicted.isEmpty()) {
+            log.debug("Evicted {} cache entries to stay under {} bytes", evicted.size(), maxBytes);
+        }
+    }
+
+    private void remove(String key) {
+        lock.lock();
+        try {
+            Long size = entries.remove(key);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        } finally {
+            lock.unlock();
+        }
+        deleteFiles(key);
+    }
+
+    // Rebuild the LRU order from the metadata file timestamps left by earlier runs
+    private void loadIndex() throws IOException {
+        List<Path> metaFiles;
+        List<Path> orphans;
+        try (Stream<Path> files = Files.list(directory)) {
+            Map<Boolean, List<Path>> byKind = files.collect(Collectors.partitioningBy(
+                    path -> path.getFileName().toString().endsWith(TEMP_SUFFIX)));
+            orphans = byKind.get(true);
+            metaFiles = byKind.get(false).stream()
+                    .filter(path -> path.getFileName().toString().endsWith(META_SUFFIX))
+                    .sorted(Comparator.comparing(ResponseCache::lastModifiedTime))
+                    .toList();
+        }
+        FileTime orphanedBefore = FileTime.from(Instant.now().minus(ORPHAN_AGE));
+        int removed = 0;
+        for (Path orphan : orphans) {
+            if (lastModifiedTime(orphan).compareTo(orphanedBefore) < 0 && Files.deleteIfExists(orphan)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} temp files left behind by interrupted cache writes", removed);
+        }
+        for (Path metaFile : metaFiles) {
+            String name = metaFile.getFileName().toString();
+            String key = name.substring(0, name.length() - META_SUFFIX.length());
+            Path body = bodyPath(key);
+            if (Files.exists(body)) {
+                long size = Files.size(body);
+                entries.put(key, size);
+                totalBytes += size;
+            } else {
+                Files.deleteIfExists(metaFile);
+            }
+        }
+        log.info("Response cache at {} holds {} entries ({} KB)", directory, entries.size(), totalBytes / 1024);
+    }
+
+    private static FileTime lastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static String keyFor(String url) {
+        String productId = ScraperUtility.extractProductIdFromUrl(url);
+        int query = productId.indexOf('?');
+        if (query >= 0) {
+            productId = productId.substring(0, query);
+        }
+        return productId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private Path bodyPath(String key) {
+        return directory.resolve(key + BODY_SUFFIX);
+    }
+
+    private Path metaPath(String key) {
+        return directory.resolve(key + META_SUFFIX);
+    }
+
+    private Properties readMeta(String key) throws IOException {
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(metaPath(key))) {
+            meta.load(reader);
+        }
+        return meta;
+    }
+
+    private void writeMeta(String key, Properties meta) throws IOException {
+        Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            meta.store(writer, null);
+        }
+        Files.move(temp, metaPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeAtomically(Path target, byte[] data) throws IOException {
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), TEMP_SUFFIX);
+        Files.write(temp, data);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteFiles(String key) {
+        try {
+            Files.deleteIfExists(bodyPath(key));
+            Files.deleteIfExists(metaPath(key));
+        } catch (IOException e) {
+            log.warn("Could not delete cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static void setIfPresent(Properties properties, String name, String value) {
+        if (value != null) {
+            properties.setProperty(name, value);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.scrapper.fetch;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded hand-off between a URL producer (the closet scroller) and the fetch workers.
+ * {@link #put(String)} blocks while the queue is full, which throttles the producer, and
+ * {@link #close()} marks the end of the stream. Iterating blocks until the next URL
+ * arrives or the stream ends, so the queue can be passed straight to {@link FetchEngine}.
+ * Intended for a single consumer.
+ */
+public class UrlQueue implements Iterable<String>, AutoCloseable {
+    private static final String END_OF_STREAM = new String("<end-of-stream>");
+
+    private final BlockingQueue<String> queue;
+    private volatile boolean closed;
+
+    public UrlQueue(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    // Add a URL, waiting for space if the consumers are behind
+    public void put(String url) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("URL queue is already closed");
+        }
+        queue.put(url);
+    }
+
+    // Signal that no more URLs will be added
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // Clear the interrupt while queueing the marker, or put() would throw straight away forever
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (!queue.offer(END_OF_STREAM)) {
+                if (interrupted) {
+                    // An interrupted producer cannot wait for the consumer; drop one pending URL to make room
+                    queue.poll();
+                    continue;
+                }
+                try {
+                    queue.put(END_OF_STREAM);
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private String next;
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+                if (finished) {
+                    return false;
+                }
+                try {
+                    String url = queue.take();
+                    if (url == END_OF_STREAM) {
+                        finished = true;
+                        return false;
+                    }
+                    next = url;
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    finished = true;
+                    return false;
+                }
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String url = next;
+                next = null;
+                return url;
+            }
+        };
+    }
+}
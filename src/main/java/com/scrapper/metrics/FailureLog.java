@@ -0,0 +1,47 @@
+package com.scrapper.metrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent failures in a fixed-size ring, so a run with thousands of errors
+ * does not grow memory. Writers claim a slot with one atomic increment and never block.
+ */
+public class FailureLog {
+    private final AtomicReferenceArray<Failure> ring;
+    private final AtomicLong written = new AtomicLong();
+
+    public record Failure(Instant time, String url, String reason) {
+    }
+
+    public FailureLog(int capacity) {
+        this.ring = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    public void add(String url, String reason) {
+        long slot = written.getAndIncrement();
+        ring.set((int) (slot % ring.length()), new Failure(Instant.now(), url, reason));
+    }
+
+    // Failures ever added, including those the ring has since overwritten
+    public long getTotal() {
+        return written.get();
+    }
+
+    // The retained failures, oldest first
+    public List<Failure> recent() {
+        long end = written.get();
+        long start = Math.max(0, end - ring.length());
+        List<Failure> failures = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            Failure failure = ring.get((int) (i % ring.length()));
+            if (failure != null) {
+                failures.add(failure);
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,72 @@
+package com.scrapper.metrics;
+
+import com.scrapper.model.ScrapingSummary;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes JSON and Prometheus-text snapshots of a {@link ScrapingSummary} to
+ * {@code <name>.json} and {@code <name>.prom}, every interval while the run is going and
+ * once more when it is closed. Files are replaced atomically, so a reader or a node
+ * exporter textfile collector never sees half a snapshot.
+ */
+@Slf4j
+public final class MetricsExporter implements AutoCloseable {
+    private final ScrapingSummary summary;
+    private final Path jsonPath;
+    private final Path prometheusPath;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param summary         metrics to export
+     * @param directory       where the snapshot files go
+     * @param name            base file name for this run
+     * @param intervalSeconds seconds between snapshots; 0 only writes the final one
+     */
+    public MetricsExporter(ScrapingSummary summary, Path directory, String name, long intervalSeconds)
+            throws IOException {
+        this.summary = summary;
+        Files.createDirectories(directory);
+        this.jsonPath = directory.resolve(name + ".json");
+        this.prometheusPath = directory.resolve(name + ".prom");
+        if (intervalSeconds > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("metrics-" + name).daemon().factory());
+            scheduler.scheduleAtFixedRate(this::export, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public void export() {
+        try {
+            writeAtomically(jsonPath, summary.toJson());
+            writeAtomically(prometheusPath, summary.toPrometheus());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not export metrics to {}: {}", jsonPath.getParent(), e.getMessage());
+        }
+    }
+
+    private static void writeAtomically(Path target, String content) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        Files.writeString(temp, content);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Stop the periodic snapshots and write the final one
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        export();
+        log.info("Metrics written to {} and {}", jsonPath.toAbsolutePath(), prometheusPath.toAbsolutePath());
+    }
+}
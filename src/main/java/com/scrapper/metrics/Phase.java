@@ -0,0 +1,18 @@
+package com.scrapper.metrics;
+
+/**
+ * Stages of a scrape whose latency is tracked separately.
+ */
+public enum Phase {
+    NAVIGATE,   // Browser navigation to a closet or product page
+    SCROLL,     // One scroll of the closet grid, including the wait for new tiles
+    FETCH,      // One HTTP attempt for a listing page
+    RETRY,      // Back-off slept between failed attempts
+    PARSE,      // Turning response bytes into a document
+    EXTRACT,    // Reading product fields from the page
+    WRITE;      // Handing a product to the output writer
+
+    public String metricName() {
+        return name().toLowerCase();
+    }
+}
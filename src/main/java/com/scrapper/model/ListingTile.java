@@ -0,0 +1,19 @@
+package com.scrapper.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A product card as seen while scrolling a closet, before its detail page is fetched.
+ */
+@Value
+@Builder
+public class ListingTile {
+    String productId;      // Unique identifier from the URL
+    String productUrl;     // Direct link to the product page
+    String fingerprint;    // Hash of the tile's URL, title, price, size and availability
+    String title;          // Tile title, if the card shows one
+    String price;          // Current price as shown on the tile
+    String size;           // Size label as shown on the tile
+    String availability;   // Inventory badge such as "SOLD" or "NOT FOR SALE", null while available
+}
@@ -1,20 +1,54 @@
 package com.scrapper.model;
 
-import lombok.Data;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.scrapper.metrics.FailureLog;
+import com.scrapper.metrics.LatencyHistogram;
+import com.scrapper.metrics.Phase;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
 
-@Data
+/**
+ * Counters and per-phase latency histograms for one scrape. Every update is lock-free,
+ * so fetch threads record into the same instance without losing counts. Failures are
+ * counted in full but only the most recent ones are kept for the report.
+ */
 public class ScrapingSummary {
-    private LocalDateTime startTime;
-    private LocalDateTime endTime;
-    private int totalProducts;
-    private int successCount;
-    private final List<String> failedProducts = new ArrayList<>();
-    private final List<String> successfulProducts = new ArrayList<>();
+    private static final int RECENT_FAILURES = 200;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private volatile LocalDateTime startTime;
+    private volatile LocalDateTime endTime;
+    private volatile int totalProducts;
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder carriedForwardCount = new LongAdder();
+    private final LongAdder bytesDownloaded = new LongAdder();
+    private final Queue<String> successfulProducts = new ConcurrentLinkedQueue<>();
+    private final FailureLog failures = new FailureLog(RECENT_FAILURES);
+    private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+
+    // A value read at snapshot time rather than counted, such as a current limit
+    private record Gauge(String help, DoubleSupplier value) {
+    }
+
+    public ScrapingSummary() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+    }
 
     public void start() {
         this.startTime = LocalDateTime.now();
@@ -24,35 +58,111 @@ public class ScrapingSummary {
         this.endTime = LocalDateTime.now();
     }
 
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public int getTotalProducts() {
+        return totalProducts;
+    }
+
+    public void setTotalProducts(int totalProducts) {
+        this.totalProducts = totalProducts;
+    }
+
     public void addFailedProduct(String url, String reason) {
-        failedProducts.add(url + " - " + reason);
+        failures.add(url, reason);
     }
 
     public void addSuccessfulProduct(String url) {
+        successCount.increment();
         successfulProducts.add(url);
     }
 
+    // A listing reused from the previous run because its tile did not change
+    public void addCarriedForwardProduct(String url) {
+        carriedForwardCount.increment();
+    }
+
+    public int getCarriedForwardCount() {
+        return carriedForwardCount.intValue();
+    }
+
+    public long getSuccessCount() {
+        return successCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failures.getTotal();
+    }
+
+    public void addBytesDownloaded(long bytes) {
+        bytesDownloaded.add(bytes);
+    }
+
+    public long getBytesDownloaded() {
+        return bytesDownloaded.sum();
+    }
+
+    // Record how long one pass through a phase took
+    public void record(Phase phase, long elapsedNanos) {
+        phases.get(phase).recordNanos(elapsedNanos);
+    }
+
+    public LatencyHistogram getPhase(Phase phase) {
+        return phases.get(phase);
+    }
+
+    // Add a gauge to the snapshots; registering the same name again replaces it
+    public void registerGauge(String name, String help, DoubleSupplier value) {
+        gauges.put(name, new Gauge(help, value));
+    }
+
     public String generateReport() {
         StringBuilder report = new StringBuilder();
         report.append("=== Scraping Summary ===\n\n");
-        
+
         if (startTime != null && endTime != null) {
             report.append(String.format("Start Time: %s%n", startTime));
             report.append(String.format("End Time: %s%n", endTime));
-            
+
             Duration duration = Duration.between(startTime, endTime);
-            String durationStr = String.format("%d minutes %d seconds", 
-                duration.toMinutes(), 
+            String durationStr = String.format("%d minutes %d seconds",
+                duration.toMinutes(),
                 duration.minusMinutes(duration.toMinutes()).getSeconds());
-                
+
             report.append(String.format("Duration: %s%n%n", durationStr));
-            double avgSeconds = (double)duration.getSeconds() / totalProducts;
-            report.append(String.format("Average time per product: %.2f seconds%n", avgSeconds));
+            if (totalProducts > 0) {
+                double avgSeconds = (double) duration.getSeconds() / totalProducts;
+                report.append(String.format("Average time per product: %.2f seconds%n", avgSeconds));
+            }
         }
 
         report.append(String.format("Total Products: %d%n", totalProducts));
-        report.append(String.format("Successfully Scraped: %d%n", totalProducts-failedProducts.size()));
-        report.append(String.format("Failed: %d%n%n", failedProducts.size()));
+        report.append(String.format("Successfully Scraped: %d%n", totalProducts - getFailedCount()));
+        if (getCarriedForwardCount() > 0) {
+            report.append(String.format("Carried Forward (unchanged): %d%n", getCarriedForwardCount()));
+        }
+        report.append(String.format("Failed: %d%n", getFailedCount()));
+        report.append(String.format("Downloaded: %.1f KB%n%n", getBytesDownloaded() / 1024.0));
+
+        report.append("=== Phase Latency ===\n");
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = phases.get(phase);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            report.append(String.format(Locale.ROOT,
+                    "%-8s count=%d p50=%.3fs p90=%.3fs p99=%.3fs max=%.3fs total=%.1fs%n",
+                    phase.metricName(), histogram.getCount(), histogram.quantileSeconds(0.5),
+                    histogram.quantileSeconds(0.9), histogram.quantileSeconds(0.99),
+                    histogram.getMaxSeconds(), histogram.getSumSeconds()));
+        }
+        report.append("\n");
 
         if (!successfulProducts.isEmpty()) {
             report.append("=== Successful Products ===\n");
@@ -60,12 +170,91 @@ public class ScrapingSummary {
             report.append("\n");
         }
 
-        if (!failedProducts.isEmpty()) {
-            report.append("=== Failed Products ===\n");
-            failedProducts.forEach(fp -> report.append("- ").append(fp).append("\n"));
+        if (getFailedCount() > 0) {
+            report.append(getFailedCount() > RECENT_FAILURES
+                    ? String.format("=== Failed Products (last %d) ===%n", RECENT_FAILURES)
+                    : "=== Failed Products ===\n");
+            failures.recent().forEach(failure ->
+                    report.append("- ").append(failure.url()).append(" - ").append(failure.reason()).append("\n"));
             report.append("\n");
         }
 
         return report.toString();
     }
+
+    // Point-in-time snapshot of every counter and phase histogram as JSON
+    public String toJson() {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("startTime", startTime != null ? startTime.toString() : null);
+        root.put("endTime", endTime != null ? endTime.toString() : null);
+        root.put("totalProducts", totalProducts);
+        root.put("succeeded", getSuccessCount());
+        root.put("failed", getFailedCount());
+        root.put("carriedForward", getCarriedForwardCount());
+        root.put("bytesDownloaded", getBytesDownloaded());
+
+        ObjectNode phaseNodes = root.putObject("phases");
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = phases.get(phase);
+            ObjectNode node = phaseNodes.putObject(phase.metricName());
+            node.put("count", histogram.getCount());
+            node.put("sumSeconds", histogram.getSumSeconds());
+            for (double quantile : QUANTILES) {
+                node.put("p" + Math.round(quantile * 100), histogram.quantileSeconds(quantile));
+            }
+            node.put("maxSeconds", histogram.getMaxSeconds());
+        }
+
+        ObjectNode gaugeNodes = root.putObject("gauges");
+        gauges.forEach((name, gauge) -> gaugeNodes.put(name, gauge.value().getAsDouble()));
+
+        ArrayNode recent = root.putArray("recentFailures");
+        failures.recent().forEach(failure -> recent.addObject()
+                .put("time", failure.time().toString())
+                .put("url", failure.url())
+                .put("reason", failure.reason()));
+        try {
+            return objectMapper.writeValueAsString(root);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not serialize scraping summary", e);
+        }
+    }
+
+    // Point-in-time snapshot in the Prometheus text exposition format
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        counter(out, "poshmark_products_succeeded_total", "Products scraped successfully", getSuccessCount());
+        counter(out, "poshmark_products_failed_total", "Products that could not be scraped", getFailedCount());
+        counter(out, "poshmark_products_carried_forward_total", "Unchanged products reused from the last run",
+                getCarriedForwardCount());
+        counter(out, "poshmark_downloaded_bytes_total", "Response bytes downloaded", getBytesDownloaded());
+
+        out.append("# HELP poshmark_phase_seconds Latency of each scrape phase\n");
+        out.append("# TYPE poshmark_phase_seconds summary\n");
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = phases.get(phase);
+            String label = "phase=\"" + phase.metricName() + "\"";
+            for (double quantile : QUANTILES) {
+                out.append(String.format(Locale.ROOT, "poshmark_phase_seconds{%s,quantile=\"%s\"} %.6f%n",
+                        label, quantile, histogram.quantileSeconds(quantile)));
+            }
+            out.append(String.format(Locale.ROOT, "poshmark_phase_seconds_sum{%s} %.6f%n",
+                    label, histogram.getSumSeconds()));
+            out.append(String.format(Locale.ROOT, "poshmark_phase_seconds_count{%s} %d%n",
+                    label, histogram.getCount()));
+        }
+
+        gauges.forEach((name, gauge) -> {
+            out.append("# HELP ").append(name).append(' ').append(gauge.help()).append('\n');
+            out.append("# TYPE ").append(name).append(" gauge\n");
+            out.append(String.format(Locale.ROOT, "%s %s%n", name, gauge.value().getAsDouble()));
+        });
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
 }
@@ -0,0 +1,580 @@
+package com.scrapper.query;
+
+import com.scrapper.catalog.CompactCatalog;
+import com.scrapper.catalog.CompactProduct;
+import com.scrapper.catalog.Prices;
+import com.scrapper.catalog.StringDictionary;
+import com.scrapper.model.Product;
+import com.scrapper.util.ProductReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over scraped products. Products are held as {@link CompactProduct}s and
+ * numbered densely in load order. Brand, size, color, category and seller each map a
+ * dictionary id to the docs carrying it: a sorted int array for rare values, a bitmap for
+ * values shared by more than 1/32 of the docs. Single-valued fields and the current price are
+ * also kept as per-doc columns. Price ranges use a price-sorted copy of the price column plus
+ * cumulative bitmaps at 64 bucket boundaries, so a range is one AND NOT of two bitmaps with
+ * only the docs in its two edge buckets set one by one.
+ * <p>
+ * A query resolves its values to dictionary ids and combines the filters as bitmaps: values
+ * of one field are ORed, fields are ANDed, most selective first. Once the running result is
+ * smaller than what the next filter would cost to build, the remaining filters check the
+ * surviving docs against the columns instead. The index is immutable once built and safe to
+ * query from many threads.
+ */
+@Slf4j
+public class ProductIndex {
+    // Shown between category levels in queries and output
+    public static final String CATEGORY_SEPARATOR = " > ";
+    // Values on more than 1/DENSE_FRACTION of the docs get a bitmap instead of an int array
+    private static final int DENSE_FRACTION = 32;
+    // Checking one doc against a column costs about as much as this many bitmap word operations
+    private static final int CHECK_COST = 16;
+    // The price-sorted docs are cut into this many buckets, each with a bitmap of everything cheaper
+    private static final int PRICE_BUCKETS = 64;
+    private static final int[] NO_IDS = new int[0];
+
+    private enum Field {
+        BRAND, SIZE, COLOR, CATEGORY, SELLER
+    }
+
+    private final CompactCatalog catalog;
+    private final CompactProduct[] products;
+    private final Map<Field, Postings> postings = new EnumMap<>(Field.class);
+    // Per-doc dictionary ids of the single-valued fields; CATEGORY holds the full path id
+    private final Map<Field, int[]> columns = new EnumMap<>(Field.class);
+    private final int[] prices;
+    private final int[] docsByPrice;
+    private final int[] sortedPrices;
+    private final int priceBucketSize;
+    // cheaperThan[k] holds the first k * priceBucketSize docs in price order
+    private final BitSet[] cheaperThan;
+    // Category path id -> ids of the path and each of its ancestors
+    private final int[][] categoryAncestors;
+
+    // Per dictionary id: sorted docs or a bitmap, the doc count, and lower-cased value -> ids
+    private record Postings(int[][] docs, BitSet[] bitmaps, int[] counts, NavigableMap<String, int[]> keys) {
+    }
+
+    private ProductIndex(CompactCatalog catalog, CompactProduct[] products) {
+        this.catalog = catalog;
+        this.products = products;
+        this.categoryAncestors = categoryAncestors();
+        this.prices = new int[products.length];
+        for (Field field : List.of(Field.BRAND, Field.SIZE, Field.SELLER, Field.CATEGORY)) {
+            columns.put(field, new int[products.length]);
+        }
+        for (int doc = 0; doc < products.length; doc++) {
+            CompactProduct product = products[doc];
+            columns.get(Field.BRAND)[doc] = product.getBrandId();
+            columns.get(Field.SIZE)[doc] = product.getSizeId();
+            columns.get(Field.SELLER)[doc] = product.getSellerId();
+            columns.get(Field.CATEGORY)[doc] = product.getCategoryPathId();
+            prices[doc] = product.getDiscountedPriceCents() != Prices.NO_PRICE
+                    ? product.getDiscountedPriceCents() : product.getPriceCents();
+        }
+        this.docsByPrice = priceOrder();
+        this.sortedPrices = new int[docsByPrice.length];
+        for (int i = 0; i < docsByPrice.length; i++) {
+            sortedPrices[i] = prices[docsByPrice[i]];
+        }
+        this.priceBucketSize = Math.max(1, (docsByPrice.length + PRICE_BUCKETS - 1) / PRICE_BUCKETS);
+        this.cheaperThan = priceBitmaps();
+        buildPostings();
+    }
+
+    // Load every product file (json, ndjson, csv or bin); a later copy of a listing replaces an earlier one
+    public static ProductIndex load(Collection<Path> files) throws IOException {
+        long start = System.nanoTime();
+        Builder builder = new Builder();
+        for (Path file : files) {
+            ProductReader.read(file, builder::add);
+        }
+        ProductIndex index = builder.build();
+        log.info("Indexed {} products from {} files in {} ms", index.size(), files.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    public CompactProduct get(int doc) {
+        return products[doc];
+    }
+
+    // Docs matching the query
+    public BitSet match(ProductQuery query) {
+        List<Filter> filters = filters(query);
+        BitSet result = new BitSet(products.length);
+        if (filters.isEmpty()) {
+            result.set(0, products.length);
+            return result;
+        }
+        filters.sort(Comparator.comparingLong(Filter::matchEstimate));
+        filters.get(0).addTo(result);
+        int remaining = result.cardinality();
+        for (int i = 1; i < filters.size() && remaining > 0; i++) {
+            Filter filter = filters.get(i);
+            if ((long) remaining * CHECK_COST < filter.buildCost()) {
+                for (int doc = result.nextSetBit(0); doc >= 0; doc = result.nextSetBit(doc + 1)) {
+                    if (!filter.matches(doc)) {
+                        result.clear(doc);
+                    }
+                }
+            } else {
+                BitSet other = new BitSet(products.length);
+                filter.addTo(other);
+                result.and(other);
+            }
+            remaining = result.cardinality();
+        }
+        return result;
+    }
+
+    // Docs matching any of the queries
+    public BitSet matchAny(ProductQuery... queries) {
+        BitSet result = new BitSet(products.length);
+        for (ProductQuery query : queries) {
+            result.or(match(query));
+        }
+        return result;
+    }
+
+    public int count(ProductQuery query) {
+        return match(query).cardinality();
+    }
+
+    // Up to limit matching products, in load order
+    public List<CompactProduct> search(ProductQuery query, int limit) {
+        return products(match(query), limit);
+    }
+
+    public List<CompactProduct> products(BitSet docs, int limit) {
+        List<CompactProduct> found = new ArrayList<>(Math.min(limit, docs.cardinality()));
+        for (int doc = docs.nextSetBit(0); doc >= 0 && found.size() < limit; doc = docs.nextSetBit(doc + 1)) {
+            found.add(products[doc]);
+        }
+        return found;
+    }
+
+    // Current price of a doc in cents, or NO_PRICE
+    public int priceCents(int doc) {
+        return prices[doc];
+    }
+
+    private List<Filter> filters(ProductQuery query) {
+        List<Filter> filters = new ArrayList<>();
+        addTermFilter(filters, Field.BRAND, query.getBrands());
+        addTermFilter(filters, Field.SIZE, query.getSizes());
+        addTermFilter(filters, Field.COLOR, query.getColors());
+        addTermFilter(filters, Field.CATEGORY, normalizedCategories(query.getCategories()));
+        addTermFilter(filters, Field.SELLER, query.getSellers());
+        if (query.hasPriceRange()) {
+            int min = query.getMinPriceCents() == Prices.NO_PRICE ? 0 : query.getMinPriceCents();
+            int max = query.getMaxPriceCents() == Prices.NO_PRICE ? Integer.MAX_VALUE : query.getMaxPriceCents();
+            filters.add(new PriceFilter(min, max));
+        }
+        return filters;
+    }
+
+    private void addTermFilter(List<Filter> filters, Field field, List<String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        NavigableMap<String, int[]> keys = postings.get(field).keys();
+        BitSet ids = new BitSet();
+        for (String value : values) {
+            String key = value.trim().toLowerCase(Locale.ROOT);
+            Collection<int[]> matches = key.endsWith("*")
+                    ? prefixRange(keys, key.substring(0, key.length() - 1)).values()
+                    : keys.containsKey(key) ? List.of(keys.get(key)) : List.of();
+            for (int[] keyIds : matches) {
+                for (int id : keyIds) {
+                    ids.set(id);
+                }
+            }
+        }
+        filters.add(new TermFilter(field, ids));
+    }
+
+    private static NavigableMap<String, int[]> prefixRange(NavigableMap<String, int[]> keys, String prefix) {
+        return prefix.isEmpty() ? keys : keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // Query spelling "Women > Pants & Jumpsuits" to the dictionary's joined form
+    private static List<String> normalizedCategories(List<String> categories) {
+        List<String> normalized = new ArrayList<>(categories.size());
+        for (String category : categories) {
+            List<String> levels = new ArrayList<>();
+            for (String level : category.split(">")) {
+                levels.add(level.trim());
+            }
+            normalized.add(CompactCatalog.categoryPath(levels));
+        }
+        return normalized;
+    }
+
+    private interface Filter {
+        // Upper bound on the docs the filter matches
+        long matchEstimate();
+
+        // Work to build the filter's bitmap, in bitmap word operations
+        long buildCost();
+
+        void addTo(BitSet docs);
+
+        boolean matches(int doc);
+    }
+
+    private class TermFilter implements Filter {
+        private final Field field;
+        private final BitSet ids;
+        private final Postings fieldPostings;
+        private final long matchEstimate;
+        private final long buildCost;
+
+        TermFilter(Field field, BitSet ids) {
+            this.field = field;
+            this.ids = ids;
+            this.fieldPostings = postings.get(field);
+            long matches = 0;
+            long cost = 0;
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                matches += fieldPostings.counts()[id];
+                // ORing a bitmap touches one word per 64 docs; setting a bit from an int array is one
+                cost += fieldPostings.bitmaps()[id] != null ? products.length / 64 : fieldPostings.counts()[id];
+            }
+            this.matchEstimate = Math.min(matches, products.length);
+            this.buildCost = cost;
+        }
+
+        @Override
+        public long matchEstimate() {
+            return matchEstimate;
+        }
+
+        @Override
+        public long buildCost() {
+            return buildCost;
+        }
+
+        @Override
+        public void addTo(BitSet docs) {
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                BitSet bitmap = fieldPostings.bitmaps()[id];
+                if (bitmap != null) {
+                    docs.or(bitmap);
+                    continue;
+                }
+                for (int doc : fieldPostings.docs()[id]) {
+                    docs.set(doc);
+                }
+            }
+        }
+
+        @Override
+        public boolean matches(int doc) {
+            if (field == Field.COLOR) {
+                for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                    if (products[doc].hasColorId(id)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            int id = columns.get(field)[doc];
+            if (id == StringDictionary.NONE) {
+                return false;
+            }
+            if (field != Field.CATEGORY) {
+                return ids.get(id);
+            }
+            for (int ancestor : categoryAncestors[id]) {
+                if (ids.get(ancestor)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private class PriceFilter implements Filter {
+        private final int min;
+        private final int max;
+        private final int from;
+        private final int to;
+
+        PriceFilter(int min, int max) {
+            this.min = min;
+            this.max = max;
+            this.from = lowerBound(min);
+            this.to = max == Integer.MAX_VALUE ? sortedPrices.length : lowerBound(max + 1);
+        }
+
+        @Override
+        public long matchEstimate() {
+            return Math.max(0, to - from);
+        }
+
+        @Override
+        public long buildCost() {
+            int lower = lowerBoundary();
+            int upper = upperBoundary();
+            if (lower >= upper) {
+                return matchEstimate();
+            }
+            return 2L * products.length / 64 + (lower * priceBucketSize - from) + (to - upper * priceBucketSize);
+        }
+
+        @Override
+        public void addTo(BitSet docs) {
+            int lower = lowerBoundary();
+            int upper = upperBoundary();
+            if (lower >= upper) {
+                setRange(docs, from, to);
+                return;
+            }
+            // Whole buckets from the cumulative bitmaps, the partial edge buckets doc by doc
+            docs.or(cheaperThan[upper]);
+            if (lower > 0) {
+                docs.andNot(cheaperThan[lower]);
+            }
+            setRange(docs, from, lower * priceBucketSize);
+            setRange(docs, upper * priceBucketSize, to);
+        }
+
+        // First bucket boundary at or after the start of the range
+        private int lowerBoundary() {
+            return (from + priceBucketSize - 1) / priceBucketSize;
+        }
+
+        // Last bucket boundary at or before the end of the range
+        private int upperBoundary() {
+            return to == docsByPrice.length ? cheaperThan.length - 1 : to / priceBucketSize;
+        }
+
+        private void setRange(BitSet docs, int start, int end) {
+            for (int i = start; i < end; i++) {
+                docs.set(docsByPrice[i]);
+            }
+        }
+
+        @Override
+        public boolean matches(int doc) {
+            int price = prices[doc];
+            return price != Prices.NO_PRICE && price >= min && price <= max;
+        }
+
+        // First position in the sorted column whose price is at least the given one
+        private int lowerBound(int price) {
+            int low = 0;
+            int high = sortedPrices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedPrices[mid] < price) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // Docs with a price, ordered by price
+    private int[] priceOrder() {
+        int priced = 0;
+        for (int price : prices) {
+            if (price != Prices.NO_PRICE) {
+                priced++;
+            }
+        }
+        // Sort (price, doc) pairs packed into longs to avoid boxing millions of docs
+        long[] pairs = new long[priced];
+        int next = 0;
+        for (int doc = 0; doc < prices.length; doc++) {
+            if (prices[doc] != Prices.NO_PRICE) {
+                pairs[next++] = ((long) prices[doc] << 32) | doc;
+            }
+        }
+        Arrays.sort(pairs);
+        int[] order = new int[priced];
+        for (int i = 0; i < priced; i++) {
+            order[i] = (int) pairs[i];
+        }
+        return order;
+    }
+
+    // Cumulative bitmaps at each bucket boundary of the price order; the last covers every priced doc
+    private BitSet[] priceBitmaps() {
+        int boundaries = (docsByPrice.length + priceBucketSize - 1) / priceBucketSize;
+        BitSet[] bitmaps = new BitSet[boundaries + 1];
+        BitSet running = new BitSet(products.length);
+        bitmaps[0] = (BitSet) running.clone();
+        for (int k = 1; k <= boundaries; k++) {
+            int end = Math.min(k * priceBucketSize, docsByPrice.length);
+            for (int i = (k - 1) * priceBucketSize; i < end; i++) {
+                running.set(docsByPrice[i]);
+            }
+            bitmaps[k] = (BitSet) running.clone();
+        }
+        return bitmaps;
+    }
+
+    // Adds every ancestor path to the dictionary so a category query can name any level
+    private int[][] categoryAncestors() {
+        StringDictionary dictionary = catalog.getDictionary();
+        Map<Integer, int[]> ancestors = new HashMap<>();
+        for (CompactProduct product : products) {
+            int pathId = product.getCategoryPathId();
+            if (pathId == StringDictionary.NONE || ancestors.containsKey(pathId)) {
+                continue;
+            }
+            List<String> levels = product.getCategories();
+            int[] ids = new int[levels.size()];
+            for (int depth = 0; depth < levels.size(); depth++) {
+                ids[depth] = dictionary.idOf(CompactCatalog.categoryPath(levels.subList(0, depth + 1)));
+            }
+            ancestors.put(pathId, ids);
+        }
+        int[][] byPath = new int[dictionary.size()][];
+        Arrays.fill(byPath, NO_IDS);
+        ancestors.forEach((pathId, ids) -> byPath[pathId] = ids);
+        return byPath;
+    }
+
+    private void buildPostings() {
+        StringDictionary dictionary = catalog.getDictionary();
+        int dictionarySize = dictionary.size();
+        Map<Field, IntList[]> lists = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            lists.put(field, new IntList[dictionarySize]);
+        }
+        for (int doc = 0; doc < products.length; doc++) {
+            CompactProduct product = products[doc];
+            add(lists.get(Field.BRAND), product.getBrandId(), doc);
+            add(lists.get(Field.SIZE), product.getSizeId(), doc);
+            add(lists.get(Field.SELLER), product.getSellerId(), doc);
+            for (int color : product.getColorIds()) {
+                add(lists.get(Field.COLOR), color, doc);
+            }
+            int pathId = product.getCategoryPathId();
+            if (pathId != StringDictionary.NONE) {
+                for (int category : categoryAncestors[pathId]) {
+                    add(lists.get(Field.CATEGORY), category, doc);
+                }
+            }
+        }
+        int denseThreshold = products.length / DENSE_FRACTION;
+        for (Field field : Field.values()) {
+            IntList[] fieldLists = lists.get(field);
+            int[][] docs = new int[dictionarySize][];
+            BitSet[] bitmaps = new BitSet[dictionarySize];
+            int[] counts = new int[dictionarySize];
+            NavigableMap<String, int[]> keys = new TreeMap<>();
+            for (int id = 0; id < dictionarySize; id++) {
+                IntList list = fieldLists[id];
+                docs[id] = NO_IDS;
+                if (list == null) {
+                    continue;
+                }
+                counts[id] = list.size;
+                if (list.size > denseThreshold) {
+                    BitSet bitmap = new BitSet(products.length);
+                    for (int i = 0; i < list.size; i++) {
+                        bitmap.set(list.values[i]);
+                    }
+                    bitmaps[id] = bitmap;
+                } else {
+                    docs[id] = list.toArray();
+                }
+                fieldLists[id] = null;
+                // Values differing only in case share one key
+                keys.merge(dictionary.valueOf(id).toLowerCase(Locale.ROOT), new int[]{id}, ProductIndex::concat);
+            }
+            postings.put(field, new Postings(docs, bitmaps, counts, keys));
+        }
+    }
+
+    private static void add(IntList[] lists, int id, int doc) {
+        if (id == StringDictionary.NONE) {
+            return;
+        }
+        IntList list = lists[id];
+        if (list == null) {
+            list = new IntList();
+            lists[id] = list;
+        }
+        // A doc can repeat a value (e.g. the same color twice); postings stay sorted and distinct
+        if (list.size == 0 || list.values[list.size - 1] != doc) {
+            list.add(doc);
+        }
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    // Growable int array, so postings never box their doc numbers
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Collects products for a new index. Products are encoded as they arrive, so a builder
+     * holds only the compact form; a listing seen again replaces its earlier copy.
+     */
+    public static class Builder {
+        private final CompactCatalog catalog = new CompactCatalog();
+        private final List<CompactProduct> products = new ArrayList<>();
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        public Builder add(Product product) {
+            CompactProduct compact = catalog.encode(product);
+            Integer position = product.getProductId() == null ? null
+                    : positions.putIfAbsent(product.getProductId(), products.size());
+            if (position == null) {
+                products.add(compact);
+            } else {
+                products.set(position, compact);
+            }
+            return this;
+        }
+
+        public ProductIndex build() {
+            return new ProductIndex(catalog, products.toArray(new CompactProduct[0]));
+        }
+    }
+}
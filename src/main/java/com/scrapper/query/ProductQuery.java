@@ -0,0 +1,50 @@
+package com.scrapper.query;
+
+import com.scrapper.catalog.Prices;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Filters for {@link ProductIndex}. Values given for the same field are alternatives (OR),
+ * and the fields are combined with AND. Values match case-insensitively; a trailing '*'
+ * matches every value starting with the text before it. A category matches its whole
+ * subtree, e.g. "Women > Pants &amp; Jumpsuits" matches leggings too. Prices are inclusive
+ * and compare against the current (discounted, if any) price.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ProductQuery {
+    @Singular
+    List<String> brands;
+    @Singular
+    List<String> sizes;
+    @Singular
+    List<String> colors;
+    @Singular("category")
+    List<String> categories;
+    @Singular
+    List<String> sellers;
+    @Builder.Default
+    int minPriceCents = Prices.NO_PRICE;
+    @Builder.Default
+    int maxPriceCents = Prices.NO_PRICE;
+
+    public boolean hasPriceRange() {
+        return minPriceCents != Prices.NO_PRICE || maxPriceCents != Prices.NO_PRICE;
+    }
+
+    public static class ProductQueryBuilder {
+        // Lower bound from price text such as "$20" or "19.99"
+        public ProductQueryBuilder minPrice(String text) {
+            return minPriceCents(Prices.toCents(text));
+        }
+
+        // Upper bound from price text such as "$50"
+        public ProductQueryBuilder maxPrice(String text) {
+            return maxPriceCents(Prices.toCents(text));
+        }
+    }
+}
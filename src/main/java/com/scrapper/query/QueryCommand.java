@@ -0,0 +1,133 @@
+package com.scrapper.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scrapper.catalog.CompactProduct;
+import com.scrapper.catalog.Prices;
+import com.scrapper.util.ProductReader;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The {@code query} subcommand: indexes product files and prints the listings matching the
+ * given filters. Directories are searched for product files. Repeating a filter, or giving it
+ * comma-separated values, ORs the values; different filters are ANDed.
+ */
+@Slf4j
+@UtilityClass
+public class QueryCommand {
+    private static final int DEFAULT_LIMIT = 20;
+    private static final Set<String> VALUE_OPTIONS = Set.of("--brand", "--size", "--color", "--category", "--seller",
+            "--min-price", "--max-price", "--limit");
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void run(String[] args) {
+        ProductQuery.ProductQueryBuilder query = ProductQuery.builder();
+        List<Path> inputs = new ArrayList<>();
+        int limit = DEFAULT_LIMIT;
+        boolean json = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--")) {
+                    inputs.add(Path.of(arg));
+                    continue;
+                }
+                if (arg.equals("--json")) {
+                    json = true;
+                    continue;
+                }
+                if (!VALUE_OPTIONS.contains(arg)) {
+                    throw new IllegalArgumentException("Unknown query option " + arg);
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException(arg + " requires a value");
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--brand" -> split(value).forEach(query::brand);
+                    case "--size" -> split(value).forEach(query::size);
+                    case "--color" -> split(value).forEach(query::color);
+                    case "--category" -> split(value).forEach(query::category);
+                    case "--seller" -> split(value).forEach(query::seller);
+                    case "--min-price" -> query.minPrice(value);
+                    case "--max-price" -> query.maxPrice(value);
+                    default -> limit = Integer.parseInt(value);
+                }
+            }
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("query needs at least one product file or directory");
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("{}", e.getMessage());
+            log.error("Usage: query [--brand B] [--size S] [--color C] [--category \"Women > Pants & Jumpsuits\"] "
+                    + "[--seller U] [--min-price P] [--max-price P] [--limit N] [--json] <file or directory>...");
+            System.exit(1);
+            return;
+        }
+
+        try {
+            ProductIndex index = ProductIndex.load(productFiles(inputs));
+            ProductQuery built = query.build();
+            long start = System.nanoTime();
+            BitSet matches = index.match(built);
+            long micros = (System.nanoTime() - start) / 1000;
+            log.info("Matched {} of {} products in {} µs", matches.cardinality(), index.size(), micros);
+            print(index.products(matches, limit), json, System.out);
+        } catch (IOException e) {
+            log.error("Could not load products: {}", e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Files as given, plus every product file directly inside a given directory
+    private static List<Path> productFiles(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> listing = Files.list(input)) {
+                    listing.filter(ProductReader::isProductFile).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    private static void print(List<CompactProduct> products, boolean json, PrintStream out) throws IOException {
+        for (CompactProduct product : products) {
+            if (json) {
+                out.println(objectMapper.writeValueAsString(product.toProduct()));
+            } else {
+                int price = product.getDiscountedPriceCents() != Prices.NO_PRICE
+                        ? product.getDiscountedPriceCents() : product.getPriceCents();
+                out.printf("%-8s %-24s %-6s %-28s %s%n", Prices.format(price), orEmpty(product.getBrand()),
+                        orEmpty(product.getSize()), orEmpty(product.getSeller()), product.toProduct().getProductUrl());
+            }
+        }
+    }
+
+    private static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,82 @@
+package com.scrapper.server;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.scrapper.service.impl.ClosetScrape;
+import com.scrapper.util.ProductWriter;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * One scrape submitted to the {@link ScrapeServer}. The public getters are what the status
+ * endpoints return; while the job runs, the product counts are read live from its writer
+ * and summary.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ScrapeJob {
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id;
+    private final String closetUrl;
+    private final int productCount;
+    private final String format;
+    private final String submittedAt = Instant.now().toString();
+    private volatile Status status = Status.QUEUED;
+    private volatile String startedAt;
+    private volatile String finishedAt;
+    private volatile String error;
+    @Getter(onMethod_ = @JsonIgnore)
+    private volatile Path outputPath;
+    @Getter(onMethod_ = @JsonIgnore)
+    private volatile ProductWriter writer;
+    @Getter(onMethod_ = @JsonIgnore)
+    private volatile ClosetScrape scrape;
+
+    ScrapeJob(String id, String closetUrl, int productCount, String format) {
+        this.id = id;
+        this.closetUrl = closetUrl;
+        this.productCount = productCount;
+        this.format = format;
+    }
+
+    public long getProductsWritten() {
+        ProductWriter current = writer;
+        return current == null ? 0 : current.getCount();
+    }
+
+    public long getProductsFailed() {
+        ClosetScrape current = scrape;
+        return current == null ? 0 : current.getSummary().getFailedCount();
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+
+    void started(Path outputPath, ProductWriter writer) {
+        this.outputPath = outputPath;
+        this.writer = writer;
+        this.startedAt = Instant.now().toString();
+        this.status = Status.RUNNING;
+    }
+
+    void enumerated(ClosetScrape scrape) {
+        this.scrape = scrape;
+    }
+
+    void done() {
+        this.finishedAt = Instant.now().toString();
+        this.status = Status.DONE;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now().toString();
+        this.status = Status.FAILED;
+    }
+}
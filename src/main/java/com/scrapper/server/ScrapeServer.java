@@ -0,0 +1,388 @@
+package com.scrapper.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scrapper.config.ScraperSettings;
+import com.scrapper.service.impl.ClosetScrape;
+import com.scrapper.service.impl.PoshmarkScraperImpl;
+import com.scrapper.store.ListingIndex;
+import com.scrapper.util.FileUtil;
+import com.scrapper.util.ProductWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Long-running scrape service on the JDK's built-in HTTP server. One scraper, with its
+ * browser, fetch engine and rate controller, is created at startup and reused by every job,
+ * so jobs skip JVM, browser and JIT warm-up. Submitted jobs wait in a bounded queue; a single
+ * runner thread owns the browser and scrolls one closet at a time, and each closet's detail
+ * fetches finish in its own lane on the shared engine while the next closet is scrolled.
+ * <pre>
+ * POST /jobs              {"closetUrl": ..., "productCount": 10, "format": "json"} -> 202 job
+ * GET  /jobs              every retained job
+ * GET  /jobs/{id}         job status and live product counts
+ * GET  /jobs/{id}/result  the output file once the job is DONE
+ * GET  /health            queue depth and job counts
+ * </pre>
+ */
+@Slf4j
+public class ScrapeServer implements AutoCloseable {
+    private static final int DEFAULT_PRODUCT_COUNT = 10;
+    private static final String DEFAULT_FORMAT = "json";
+    // Finished jobs kept for polling before the oldest are forgotten
+    private static final int RETAINED_JOBS = 1000;
+    // How long close() waits for the runner to finish its job and shut the browser down
+    private static final Duration RUNNER_STOP_TIMEOUT = Duration.ofSeconds(30);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ScraperSettings settings;
+    private final boolean headless;
+    private final Path outputDir;
+    private final BlockingQueue<ScrapeJob> queue;
+    private final Map<String, ScrapeJob> jobs = new LinkedHashMap<>();
+    private final ReentrantLock jobsLock = new ReentrantLock();
+    private final AtomicLong nextId = new AtomicLong();
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final HttpServer server;
+    private final Thread runner;
+    private volatile String startupError;
+    private volatile boolean started;
+    private volatile boolean closed;
+
+    private ScrapeServer(ScraperSettings settings, boolean headless) throws IOException {
+        this.settings = settings;
+        this.headless = headless;
+        this.outputDir = Path.of(settings.getServerOutputDir());
+        Files.createDirectories(outputDir);
+        this.queue = new ArrayBlockingQueue<>(settings.getServerQueueCapacity());
+        this.server = HttpServer.create(new InetSocketAddress(settings.getServerPort()), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/jobs", this::handleJobs);
+        server.createContext("/health", this::handleHealth);
+        // Playwright objects stay on the thread that created them, so the runner builds the scraper
+        this.runner = Thread.ofPlatform().name("scrape-runner").start(this::runJobs);
+    }
+
+    /**
+     * Starts the scraper and the HTTP server. Returns once the scraper is constructed and the
+     * port is accepting requests; the browser itself is launched by the first job that needs it.
+     *
+     * @param settings scraper settings; the server* settings pick port, queue and output directory
+     * @param headless whether the shared browser runs headless
+     */
+    public static ScrapeServer start(ScraperSettings settings, boolean headless) throws IOException {
+        ScrapeServer scrapeServer = new ScrapeServer(settings, headless);
+        try {
+            scrapeServer.ready.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scrapeServer.close();
+            throw new IOException("Interrupted while starting the scraper", e);
+        }
+        if (scrapeServer.startupError != null) {
+            scrapeServer.close();
+            throw new IOException("Could not start the scraper: " + scrapeServer.startupError);
+        }
+        scrapeServer.server.start();
+        scrapeServer.started = true;
+        log.info("Scrape server listening on port {} (queue capacity {}, output in {})",
+                scrapeServer.server.getAddress().getPort(), settings.getServerQueueCapacity(),
+                scrapeServer.outputDir.toAbsolutePath());
+        return scrapeServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Block until the server has been closed
+    public void awaitTermination() throws InterruptedException {
+        stopped.await();
+    }
+
+    private void runJobs() {
+        PoshmarkScraperImpl service;
+        try {
+            service = new PoshmarkScraperImpl(headless, settings);
+        } catch (RuntimeException e) {
+            startupError = e.getMessage();
+            ready.countDown();
+            return;
+        }
+        ready.countDown();
+        try (service) {
+            while (!closed) {
+                ScrapeJob job = queue.take();
+                runJob(service, job);
+            }
+        } catch (InterruptedException e) {
+            // close() interrupts the runner; jobs still queued stay QUEUED
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Scroll the closet here, then let a virtual thread wait for its fetches and finish the output
+    private void runJob(PoshmarkScraperImpl service, ScrapeJob job) {
+        String closetKey = ListingIndex.closetKey(job.getClosetUrl());
+        Path outputPath = outputDir.resolve(String.format("%s_poshmark_products_%s.%s",
+                job.getId(), closetKey, job.getFormat()));
+        Path summaryPath = outputDir.resolve(String.format("%s_scraping_summary_%s.txt", job.getId(), closetKey));
+        ProductWriter writer;
+        try {
+            writer = FileUtil.openProductWriter(job.getFormat(), job.getClosetUrl(), outputPath);
+        } catch (IOException e) {
+            log.error("Job {} could not open {}: {}", job.getId(), outputPath, e.getMessage());
+            job.failed("Could not open output file: " + e.getMessage());
+            return;
+        }
+        log.info("Starting job {}: {} ({} products, {})", job.getId(), job.getClosetUrl(), job.getProductCount(),
+                job.getFormat());
+        job.started(outputPath, writer);
+        long startNanos = System.nanoTime();
+        ClosetScrape scrape = service.startClosetScrape(job.getClosetUrl(), job.getProductCount(),
+                settings.getMaxInFlightPerCloset(), summaryPath, null, writer);
+        job.enumerated(scrape);
+        Thread.ofVirtual().name("finish-job-" + job.getId()).start(() -> {
+            scrape.awaitCompletion();
+            try {
+                writer.finish((System.nanoTime() - startNanos) / 1_000_000_000.0);
+                // Products listed before the failure are kept in the output
+                if (scrape.getListingError() != null) {
+                    job.failed("Could not list closet: " + scrape.getListingError());
+                    log.warn("Job {} failed while listing the closet; {} products saved to {}", job.getId(),
+                            writer.getCount(), outputPath.toAbsolutePath());
+                    return;
+                }
+                job.done();
+                log.info("Job {} finished: {} products saved to {}", job.getId(), writer.getCount(),
+                        outputPath.toAbsolutePath());
+            } catch (IOException e) {
+                log.error("Job {} failed to finish its output: {}", job.getId(), e.getMessage());
+                job.failed("Could not write output: " + e.getMessage());
+            }
+        });
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String[] parts = path.replaceAll("/+$", "").split("/");
+            String method = exchange.getRequestMethod();
+            // Contexts match by prefix, so /jobsfoo also lands here
+            if (parts.length < 2 || !parts[1].equals("jobs")) {
+                sendError(exchange, 404, "Unknown endpoint " + method + " " + path);
+            } else if (parts.length == 2 && method.equals("POST")) {
+                submit(exchange);
+            } else if (parts.length == 2 && method.equals("GET")) {
+                sendJson(exchange, 200, allJobs());
+            } else if (parts.length == 3 && method.equals("GET")) {
+                ScrapeJob job = findJob(parts[2]);
+                if (job == null) {
+                    sendError(exchange, 404, "No job " + parts[2]);
+                } else {
+                    sendJson(exchange, 200, job);
+                }
+            } else if (parts.length == 4 && parts[3].equals("result") && method.equals("GET")) {
+                sendResult(exchange, parts[2]);
+            } else if (parts.length == 2 || parts.length == 3
+                    || (parts.length == 4 && parts[3].equals("result"))) {
+                exchange.getResponseHeaders().set("Allow", parts.length == 2 ? "GET, POST" : "GET");
+                sendError(exchange, 405, method + " not allowed on " + path);
+            } else {
+                sendError(exchange, 404, "Unknown endpoint " + method + " " + path);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error handling {} {}: {}", exchange.getRequestMethod(), exchange.getRequestURI(),
+                    e.getMessage());
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(exchange.getRequestBody());
+        } catch (IOException e) {
+            sendError(exchange, 400, "Request body must be JSON");
+            return;
+        }
+        String closetUrl = body == null ? "" : body.path("closetUrl").asText("");
+        String format = body == null ? DEFAULT_FORMAT : body.path("format").asText(DEFAULT_FORMAT).toLowerCase();
+        int productCount = body == null ? DEFAULT_PRODUCT_COUNT : body.path("productCount").asInt(DEFAULT_PRODUCT_COUNT);
+        if (!isHttpUrl(closetUrl)) {
+            sendError(exchange, 400, "closetUrl must be an http(s) URL");
+            return;
+        }
+        if (!FileUtil.SUPPORTED_FORMATS.contains(format)) {
+            sendError(exchange, 400, "format must be one of " + FileUtil.SUPPORTED_FORMATS);
+            return;
+        }
+        if (productCount < 0) {
+            sendError(exchange, 400, "productCount must be 0 (all) or more");
+            return;
+        }
+
+        ScrapeJob job = new ScrapeJob(String.valueOf(nextId.incrementAndGet()), closetUrl, productCount, format);
+        boolean queued;
+        jobsLock.lock();
+        try {
+            // Register before queueing so the runner never starts a job the API cannot find
+            jobs.put(job.getId(), job);
+            queued = queue.offer(job);
+            if (queued) {
+                forgetOldJobs();
+            } else {
+                jobs.remove(job.getId());
+            }
+        } finally {
+            jobsLock.unlock();
+        }
+        if (!queued) {
+            exchange.getResponseHeaders().set("Retry-After", "30");
+            sendError(exchange, 503, "Job queue is full (" + settings.getServerQueueCapacity() + " waiting)");
+            return;
+        }
+        log.info("Queued job {}: {} ({} waiting)", job.getId(), closetUrl, queue.size());
+        exchange.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+        sendJson(exchange, 202, job);
+    }
+
+    // Drop the oldest finished jobs beyond the retention limit; queued and running jobs are kept
+    private void forgetOldJobs() {
+        int excess = jobs.size() - RETAINED_JOBS;
+        var iterator = jobs.values().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    private void sendResult(HttpExchange exchange, String id) throws IOException {
+        ScrapeJob job = findJob(id);
+        if (job == null) {
+            sendError(exchange, 404, "No job " + id);
+            return;
+        }
+        if (job.getStatus() != ScrapeJob.Status.DONE) {
+            sendError(exchange, 409, "Job " + id + " is " + job.getStatus());
+            return;
+        }
+        Path output = job.getOutputPath();
+        exchange.getResponseHeaders().set("Content-Type", contentType(job.getFormat()));
+        exchange.getResponseHeaders().set("Content-Disposition",
+                "attachment; filename=\"" + output.getFileName() + "\"");
+        exchange.sendResponseHeaders(200, Files.size(output));
+        try (OutputStream body = exchange.getResponseBody()) {
+            Files.copy(output, body);
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Map<String, Object> health = new LinkedHashMap<>();
+            health.put("status", closed ? "stopping" : "ok");
+            health.put("queued", queue.size());
+            health.put("queueCapacity", settings.getServerQueueCapacity());
+            Map<ScrapeJob.Status, Integer> counts = new LinkedHashMap<>();
+            for (ScrapeJob job : allJobs()) {
+                counts.merge(job.getStatus(), 1, Integer::sum);
+            }
+            health.put("jobs", counts);
+            sendJson(exchange, 200, health);
+        }
+    }
+
+    private ScrapeJob findJob(String id) {
+        jobsLock.lock();
+        try {
+            return jobs.get(id);
+        } finally {
+            jobsLock.unlock();
+        }
+    }
+
+    private List<ScrapeJob> allJobs() {
+        jobsLock.lock();
+        try {
+            return new ArrayList<>(jobs.values());
+        } finally {
+            jobsLock.unlock();
+        }
+    }
+
+    private static boolean isHttpUrl(String url) {
+        try {
+            URI uri = URI.create(url);
+            return ("https".equalsIgnoreCase(uri.getScheme()) || "http".equalsIgnoreCase(uri.getScheme()))
+                    && uri.getHost() != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String contentType(String format) {
+        return switch (format) {
+            case "csv" -> "text/csv; charset=utf-8";
+            case "ndjson" -> "application/x-ndjson";
+            case "bin" -> "application/octet-stream";
+            default -> "application/json";
+        };
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, Map.of("error", message));
+    }
+
+    // Stop taking requests, stop the runner and close the browser; queued jobs are dropped
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        log.info("Stopping scrape server ({} jobs still queued)", queue.size());
+        if (started) {
+            server.stop(1);
+        }
+        runner.interrupt();
+        try {
+            if (!runner.join(RUNNER_STOP_TIMEOUT)) {
+                log.warn("Scrape runner did not stop within {} s; leaving it behind",
+                        RUNNER_STOP_TIMEOUT.toSeconds());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopped.countDown();
+    }
+}
@@ -0,0 +1,151 @@
+package com.scrapper.service.impl;
+
+import com.scrapper.config.ScraperSettings;
+import com.scrapper.store.ListingIndex;
+import com.scrapper.store.ScrapeJournal;
+import com.scrapper.util.FileUtil;
+import com.scrapper.util.ProductWriter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scrapes many closets in one process with one browser and one shared fetch engine.
+ * Closets are scrolled one after another on the calling thread, while the detail fetches
+ * of every closet already enumerated keep running in their own capped lanes. Each closet
+ * gets its own output file, journal and summary report.
+ */
+@Slf4j
+public class BatchScraper {
+    private final PoshmarkScraperImpl service;
+    private final ScraperSettings settings;
+
+    @Value
+    public static class ClosetJob {
+        String closetUrl;
+        int productCount;
+    }
+
+    // A closet whose detail fetches may still be running
+    private record RunningJob(ClosetJob job, ClosetScrape scrape, ProductWriter writer, ScrapeJournal journal,
+                              long startNanos) {
+    }
+
+    public BatchScraper(PoshmarkScraperImpl service, ScraperSettings settings) {
+        this.service = service;
+        this.settings = settings;
+    }
+
+    /**
+     * Reads closet jobs from a file with one closet URL per line, optionally followed by a
+     * product count. Blank lines and lines starting with '#' are ignored.
+     *
+     * @param file                batch file
+     * @param defaultProductCount count used when a line does not give one
+     * @return jobs in file order
+     */
+    public static List<ClosetJob> readJobs(Path file, int defaultProductCount) throws IOException {
+        List<ClosetJob> jobs = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            int productCount = defaultProductCount;
+            if (parts.length > 1) {
+                try {
+                    productCount = Integer.parseInt(parts[1]);
+                } catch (NumberFormatException e) {
+                    log.warn("Invalid product count '{}' for {}. Using default: {}", parts[1], parts[0],
+                            defaultProductCount);
+                }
+            }
+            jobs.add(new ClosetJob(parts[0], productCount));
+        }
+        return jobs;
+    }
+
+    /**
+     * Runs every job and waits for all of them to finish.
+     *
+     * @param jobs   closets to scrape
+     * @param format output format for every closet
+     * @return number of closets listed and written in full; a closet whose files cannot be
+     *         opened is skipped, and one that cannot be listed keeps its journal for --resume
+     */
+    public int run(List<ClosetJob> jobs, String format) throws IOException {
+        Path outputDir = Path.of(settings.getBatchOutputDir());
+        Files.createDirectories(outputDir);
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        List<RunningJob> running = new ArrayList<>();
+
+        for (int i = 0; i < jobs.size(); i++) {
+            ClosetJob job = jobs.get(i);
+            String closetKey = ListingIndex.closetKey(job.getClosetUrl());
+            log.info("Starting closet {}/{}: {}", i + 1, jobs.size(), job.getClosetUrl());
+
+            Path outputPath = outputDir.resolve(String.format("poshmark_products_%s_%s.%s",
+                    closetKey, timestamp, format.toLowerCase()));
+            Path summaryPath = outputDir.resolve(String.format("scraping_summary_%s.txt", closetKey));
+            ProductWriter writer = null;
+            ScrapeJournal journal;
+            try {
+                writer = FileUtil.openProductWriter(format, job.getClosetUrl(), outputPath);
+                journal = ScrapeJournal.open(Path.of(settings.getJournalDir()), job.getClosetUrl(),
+                        settings.isResume(), settings.getJournalBatchSize());
+            } catch (IOException e) {
+                // One closet's files must not stop the closets already running
+                log.error("Skipping closet {}: {}", job.getClosetUrl(), e.getMessage());
+                closeQuietly(writer);
+                continue;
+            }
+
+            long startNanos = System.nanoTime();
+            ClosetScrape scrape = service.startClosetScrape(job.getClosetUrl(), job.getProductCount(),
+                    settings.getMaxInFlightPerCloset(), summaryPath, journal, writer);
+            running.add(new RunningJob(job, scrape, writer, journal, startNanos));
+        }
+
+        int completed = 0;
+        for (RunningJob job : running) {
+            job.scrape().awaitCompletion();
+            double executionTimeSeconds = (System.nanoTime() - job.startNanos()) / 1_000_000_000.0;
+            try {
+                job.writer().finish(executionTimeSeconds);
+                if (job.scrape().getListingError() != null) {
+                    // Keep the journal so --resume can pick the closet up again
+                    log.error("Closet {} could not be listed: {}", job.job().getClosetUrl(),
+                            job.scrape().getListingError());
+                    job.journal().close();
+                    continue;
+                }
+                job.journal().delete();
+                completed++;
+                log.info("Closet {} finished: {} products saved to {}", job.job().getClosetUrl(),
+                        job.writer().getCount(), job.writer().getPath().toAbsolutePath());
+            } catch (IOException e) {
+                log.error("Failed to finish output for {}: {}", job.job().getClosetUrl(), e.getMessage());
+                job.journal().close();
+            }
+        }
+        log.info("Batch finished: {}/{} closets written", completed, jobs.size());
+        return completed;
+    }
+
+    private static void closeQuietly(ProductWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Failed to close {}: {}", writer.getPath(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.scrapper.service.impl;
+
+import com.scrapper.config.ScraperSettings;
+import com.scrapper.fetch.FetchEngine;
+import com.scrapper.metrics.MetricsExporter;
+import com.scrapper.model.ScrapingSummary;
+import com.scrapper.store.ListingIndex;
+import com.scrapper.store.ScrapeJournal;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * State of one closet being scraped: its summary, journal and fetch lane.
+ * In batch mode several of these run at once on the shared fetch engine.
+ */
+@Slf4j
+@Getter
+public class ClosetScrape {
+    private final String closetUrl;
+    private final ScrapingSummary summary = new ScrapingSummary();
+    private final FetchEngine.Lane lane;
+    private final Path summaryPath;
+    private ScrapeJournal journal;
+    private Thread fetchWorkers;
+    private MetricsExporter metricsExporter;
+    // Why listing the closet stopped early, or null if it was listed completely
+    private volatile String listingError;
+    // True once the whole closet, or as much as the product count asked for, has been listed
+    private volatile boolean listingComplete;
+
+    ClosetScrape(String closetUrl, FetchEngine.Lane lane, Path summaryPath, ScrapeJournal journal) {
+        this.closetUrl = closetUrl;
+        this.lane = lane;
+        this.summaryPath = summaryPath;
+        this.journal = journal;
+    }
+
+    void setJournal(ScrapeJournal journal) {
+        this.journal = journal;
+    }
+
+    void setFetchWorkers(Thread fetchWorkers) {
+        this.fetchWorkers = fetchWorkers;
+    }
+
+    void setListingError(String listingError) {
+        this.listingError = listingError;
+    }
+
+    void setListingComplete(boolean listingComplete) {
+        this.listingComplete = listingComplete;
+    }
+
+    // Begin exporting metric snapshots for this closet; later calls keep the running exporter. The listing
+    // thread and the fetch pipeline may both start it, so only one of them creates the exporter
+    synchronized void startMetrics(ScraperSettings settings) {
+        if (metricsExporter != null || !settings.isMetrics()) {
+            return;
+        }
+        String name = closetUrl == null ? "metrics" : "metrics_" + ListingIndex.closetKey(closetUrl);
+        try {
+            metricsExporter = new MetricsExporter(summary, Path.of(settings.getMetricsDir()), name,
+                    settings.getMetricsIntervalSeconds());
+        } catch (IOException e) {
+            log.warn("Metrics export disabled, could not open {}: {}", settings.getMetricsDir(), e.getMessage());
+        }
+    }
+
+    // Write the final snapshot and stop the periodic export
+    synchronized void stopMetrics() {
+        if (metricsExporter != null) {
+            metricsExporter.close();
+            metricsExporter = null;
+        }
+    }
+
+    // Wait until every product queued for this closet has been fetched
+    public void awaitCompletion() {
+        if (fetchWorkers == null) {
+            return;
+        }
+        try {
+            fetchWorkers.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for product fetches of {} to finish", closetUrl);
+        }
+    }
+}
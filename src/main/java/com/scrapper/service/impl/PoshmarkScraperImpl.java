@@ -4,92 +4,417 @@ import com.microsoft.playwright.Browser;
 import com.microsoft.playwright.BrowserContext;
 import com.microsoft.playwright.ElementHandle;
 import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.TimeoutError;
 import com.microsoft.playwright.options.WaitUntilState;
+import com.scrapper.config.BrowserPool;
+import com.scrapper.config.NetworkActivity;
 import com.scrapper.config.PlaywrightConfig;
+import com.scrapper.config.ScraperSettings;
+import com.scrapper.extract.EmbeddedStateExtractor;
+import com.scrapper.extract.ProductExtractor;
+import com.scrapper.extract.StreamingProductExtractor;
+import com.scrapper.fetch.ClosetFeed;
+import com.scrapper.fetch.DocumentFetcher;
+import com.scrapper.fetch.FetchEngine;
+import com.scrapper.fetch.HostPacer;
+import com.scrapper.fetch.ImageDownloader;
+import com.scrapper.fetch.ImageVariant;
+import com.scrapper.fetch.PageResponse;
+import com.scrapper.fetch.RateController;
+import com.scrapper.fetch.UrlQueue;
+import com.scrapper.metrics.Phase;
+import com.scrapper.model.ListingTile;
 import com.scrapper.model.Product;
 import com.scrapper.model.ScrapingSummary;
 import com.scrapper.service.PostmarkScraperService;
+import com.scrapper.store.ImageStore;
+import com.scrapper.store.ListingIndex;
+import com.scrapper.store.ScrapeJournal;
 import com.scrapper.util.ScraperUtility;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.nodes.Document;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 public class PoshmarkScraperImpl implements PostmarkScraperService, AutoCloseable {
-    private final BrowserContext context;
-    private final Browser browser;
-    private final PlaywrightConfig playwrightConfig;
-    private final ScrapingSummary summary = new ScrapingSummary();
+    private static final String TILE_SELECTOR = "div.tiles_container > div";
+    private static final int SCROLL_POLL_MS = 250;
+    // Reads every tile from the given offset in one call instead of a round trip per card
+    private static final String READ_TILES_SCRIPT = """
+            ([selector, offset]) => {
+                const text = (tile, query) => {
+                    const element = tile.querySelector(query);
+                    return element ? element.textContent.trim() : null;
+                };
+                return Array.from(document.querySelectorAll(selector)).slice(offset).map(tile => {
+                    const link = tile.querySelector('div.card.card--small > a');
+                    return {
+                        href: link ? link.getAttribute('href') : null,
+                        title: text(tile, 'a.tile__title'),
+                        price: text(tile, 'span.p--t--1.fw--bold'),
+                        size: text(tile, 'a.tile__details__pipe__size'),
+                        availability: text(tile, 'span.inventory-tag__text')
+                    };
+                });
+            }
+            """;
+
+    private final ScraperSettings settings;
+    private final RateController rateController;
+    private final HostPacer renderPacer;
+    private final FetchEngine fetchEngine;
+    private final DocumentFetcher documentFetcher;
+    private final ClosetFeed closetFeed;
+    private final EmbeddedStateExtractor embeddedStateExtractor = new EmbeddedStateExtractor();
+    private final ProductExtractor productExtractor = new ProductExtractor();
+    private final StreamingProductExtractor streamingExtractor;
+    private final ImageDownloader imageDownloader;
+    private final ClosetScrape defaultRun;
+    private final boolean headless;
+    private final ReentrantLock browserLock = new ReentrantLock();
+    private PlaywrightConfig playwrightConfig;
+    private Browser browser;
+    private BrowserContext context;
+    private BrowserPool browserPool;
 
     public PoshmarkScraperImpl(boolean headless) {
-        this.playwrightConfig = PlaywrightConfig.getInstance();
-        this.browser = playwrightConfig.createBrowser(headless);
-        this.context = playwrightConfig.createBrowserContext(browser);
+        this(headless, ScraperSettings.fromSystemProperties());
+    }
+
+    public PoshmarkScraperImpl(boolean headless, ScraperSettings settings) {
+        this.settings = settings;
+        this.headless = headless;
+        // One controller for the site, shared by the HTTP fetches and the browser renders
+        this.rateController = new RateController(settings);
+        this.fetchEngine = new FetchEngine(settings, rateController);
+        // Renders and fetches share one pacer, so the gap to a host holds across both
+        this.renderPacer = fetchEngine.getPacer();
+        this.documentFetcher = DocumentFetcher.create(settings, fetchEngine);
+        // Feed pages change as the closet does and would collide in the cache, so they skip it
+        this.closetFeed = new ClosetFeed(DocumentFetcher.create(settings.toBuilder().responseCache(false).build(),
+                fetchEngine));
+        this.streamingExtractor = "stream".equalsIgnoreCase(settings.getParseMode())
+                ? new StreamingProductExtractor(settings.isEmbeddedState() ? embeddedStateExtractor : null)
+                : null;
+        this.imageDownloader = settings.isImages() ? createImageDownloader(settings) : null;
+        this.defaultRun = new ClosetScrape(null, fetchEngine.lane("default", settings.getMaxInFlight()),
+                Paths.get("scraping_summary.txt"), null);
+    }
+
+    private static ImageDownloader createImageDownloader(ScraperSettings settings) {
+        try {
+            ImageStore store = ImageStore.open(Path.of(settings.getImageDir()));
+            return new ImageDownloader(store, ImageVariant.fromSetting(settings.getImageVariant()),
+                    settings.getImageConcurrency(), settings.getImageMaxBytesPerSecond());
+        } catch (IOException e) {
+            log.warn("Image downloads disabled, could not open {}: {}", settings.getImageDir(), e.getMessage());
+            return null;
+        }
+    }
+
+    // Record progress in the journal and skip products it already lists as completed
+    public void setJournal(ScrapeJournal journal) {
+        defaultRun.setJournal(journal);
     }
 
     @Override
     public Set<String> getProductUrls(String closetUrl, int productCount) {
-        // if no product count provided, scrape as many as possible
-        summary.start();
-        productCount = productCount > 0 ? productCount : Integer.MAX_VALUE;
-        Set<String> productUrls = new HashSet<>();
+        return collectListingTiles(defaultRun, closetUrl, productCount, tile -> {
+        });
+    }
+
+    /**
+     * Scrolls the closet and scrapes product details at the same time.
+     * URLs are handed to the fetch workers through a bounded queue as soon as each tile is
+     * seen; scrolling pauses whenever the workers fall behind.
+     *
+     * @param closetUrl    URL of the closet to scrape
+     * @param productCount maximum number of products, or 0 for all
+     * @return scraped products
+     */
+    public List<Product> scrapePipelined(String closetUrl, int productCount) {
+        List<Product> products = Collections.synchronizedList(new ArrayList<>());
+        scrapePipelined(closetUrl, productCount, products::add);
+        return products;
+    }
 
-        // Create a new page
-        Page page = playwrightConfig.createPage(context);
+    /**
+     * Pipelined scrape that hands every product to the sink as soon as it is extracted.
+     *
+     * @param closetUrl    URL of the closet to scrape
+     * @param productCount maximum number of products, or 0 for all
+     * @param sink         receives each scraped product; called from many threads
+     */
+    public void scrapePipelined(String closetUrl, int productCount, Consumer<Product> sink) {
+        startPipeline(defaultRun, closetUrl, productCount, null, sink);
+        defaultRun.awaitCompletion();
+    }
 
-        // Navigate to the closet page
-        log.info("Navigating to: {}", closetUrl);
-        page.navigate(closetUrl);
+    /**
+     * Starts a pipelined scrape of one closet in its own fetch lane, for batch runs.
+     * The closet is enumerated on the calling thread and this method returns once it is fully
+     * enumerated; detail fetches carry on in the background until
+     * {@link ClosetScrape#awaitCompletion()} returns.
+     *
+     * @param closetUrl    URL of the closet to scrape
+     * @param productCount maximum number of products, or 0 for all
+     * @param maxInFlight  cap on this closet's concurrent fetches
+     * @param summaryPath  where the closet's summary report is written
+     * @param journal      journal for this closet, or null
+     * @param sink         receives each scraped product; called from many threads
+     * @return handle for the running scrape
+     */
+    public ClosetScrape startClosetScrape(String closetUrl, int productCount, int maxInFlight, Path summaryPath,
+                                          ScrapeJournal journal, Consumer<Product> sink) {
+        ClosetScrape run = new ClosetScrape(closetUrl,
+                fetchEngine.lane(ListingIndex.closetKey(closetUrl), maxInFlight), summaryPath, journal);
+        try {
+            startPipeline(run, closetUrl, productCount, null, sink);
+        } catch (RuntimeException e) {
+            // Products queued before the failure are still fetched; the batch moves on
+            log.error("Error enumerating closet {}: {}", closetUrl, e.getMessage());
+            run.setListingError(e.getMessage());
+        }
+        return run;
+    }
 
-        // Wait for the product grid to load
-        page.waitForSelector("div.tiles_container > div");
+    /**
+     * Delta scrape: only listings that are new or whose tile changed since the last run are
+     * fetched. Unchanged listings are carried forward from the index, and the index is
+     * updated and saved at the end. A run over the whole closet also drops listings it no
+     * longer saw, such as sold or deleted ones.
+     *
+     * @param closetUrl    URL of the closet to scrape
+     * @param productCount maximum number of products, or 0 for all
+     * @param index        listing index from the previous runs of this closet
+     * @param sink         receives each scraped or carried-forward product
+     */
+    public void scrapeDelta(String closetUrl, int productCount, ListingIndex index, Consumer<Product> sink)
+            throws IOException {
+        long runStart = System.currentTimeMillis();
+        startPipeline(defaultRun, closetUrl, productCount, index, sink);
+        defaultRun.awaitCompletion();
+        log.info("Delta run carried forward {} unchanged products", defaultRun.getSummary().getCarriedForwardCount());
+        // Only a run that listed the whole closet knows which listings are gone
+        if (productCount <= 0 && defaultRun.isListingComplete()) {
+            index.pruneNotSeenSince(runStart);
+        }
+        index.save();
+    }
 
-        while (true) {
-            // Get current set of product cards
-            List<ElementHandle> productCards = page.querySelectorAll("div.tiles_container > div");
-            int previousSize = productUrls.size();
+    // Start the fetch workers, then list the closet feeding them; returns once listing is done
+    private void startPipeline(ClosetScrape run, String closetUrl, int productCount, ListingIndex index,
+                               Consumer<Product> sink) {
+        UrlQueue urlQueue = new UrlQueue(settings.getUrlQueueCapacity());
+        Map<String, ListingTile> pendingTiles = new ConcurrentHashMap<>();
+        Consumer<Product> fetchSink = index == null ? sink : product -> {
+            sink.accept(product);
+            ListingTile tile = pendingTiles.remove(product.getProductUrl());
+            if (tile != null) {
+                index.record(tile, product);
+            }
+        };
+        run.setFetchWorkers(Thread.ofVirtual().name("fetch-pipeline")
+                .start(() -> scrapeWithJsoup(run, urlQueue, -1, fetchSink)));
 
-            // Process newly loaded products
-            for (ElementHandle productCard : productCards) {
-                try {
-                    String productUrl = "https://poshmark.com" + productCard.querySelector("div.card.card--small > a")
-                            .getAttribute("href");
-                    if (productUrls.add(productUrl)) { // Only process new URLs
-                        log.info("Extracted link: {} (Total: {}/{})",
-                                productUrl, productUrls.size(), productCount);
-                        if (productUrls.size() >= productCount) {
-                            break;
-                        }
+        // Playwright is not thread-safe, so listing stays on the calling thread
+        try {
+            collectListingTiles(run, closetUrl, productCount, tile -> {
+                if (index != null) {
+                    Product previous = index.findUnchanged(tile);
+                    if (previous != null) {
+                        log.info("Unchanged since last run, carrying forward: {}", tile.getProductUrl());
+                        run.getSummary().addCarriedForwardProduct(tile.getProductUrl());
+                        sink.accept(previous);
+                        return;
                     }
-                } catch (Exception e) {
-                    log.error("Error extracting product: {}", e.getMessage());
+                    pendingTiles.put(tile.getProductUrl(), tile);
                 }
+                try {
+                    urlQueue.put(tile.getProductUrl());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while queueing " + tile.getProductUrl(), e);
+                }
+            });
+        } finally {
+            urlQueue.close();
+        }
+    }
+
+    // List the closet over HTTP or by scrolling it, passing every newly seen product tile to the callback
+    private Set<String> collectListingTiles(ClosetScrape run, String closetUrl, int productCount,
+                                            Consumer<ListingTile> onNewTile) {
+        // if no product count provided, scrape as many as possible
+        ScrapeJournal journal = run.getJournal();
+        ScrapingSummary summary = run.getSummary();
+        summary.start();
+        startMetrics(run);
+        int limit = productCount > 0 ? productCount : Integer.MAX_VALUE;
+        Set<String> productUrls = new HashSet<>();
+        Predicate<ListingTile> offerTile = tile -> {
+            if (!productUrls.add(tile.getProductUrl())) {
+                return false;
             }
-            // Check if we've reached our target or if no new products were found
-            if (productUrls.size() >= productCount) {
-                break;
+            log.info("Extracted link: {} (Total: {}/{})", tile.getProductUrl(), productUrls.size(), limit);
+            if (journal != null) {
+                journal.recordQueued(tile.getProductUrl());
             }
-            // Check if we've reached the end or no new products were found
-            if (previousSize == productUrls.size()) {
-                log.info("No new products found in the last scroll. Ending scroll.");
-                break;
+            onNewTile.accept(tile);
+            return true;
+        };
+
+        String enumeration = settings.getEnumeration();
+        boolean listed = false;
+        if (!"browser".equalsIgnoreCase(enumeration)) {
+            try {
+                log.info("Reading closet feed: {}", closetUrl);
+                run.setListingComplete(closetFeed.enumerate(closetUrl, limit, summary, run.getLane(), offerTile));
+                listed = true;
+            } catch (IOException e) {
+                if ("http".equalsIgnoreCase(enumeration)) {
+                    throw new UncheckedIOException(e);
+                }
+                // Tiles already seen are kept; scrolling only adds the ones the feed missed
+                log.warn("Closet feed unavailable, scrolling in the browser instead: {}", e.getMessage());
             }
+        }
+        if (!listed) {
+            scrollListingTiles(summary, closetUrl, limit, productUrls, offerTile);
+            run.setListingComplete(true);
+        }
+        if (journal != null) {
+            journal.recordListingComplete();
+        }
+        log.info("Found {} products in closet", productUrls.size());
+        return productUrls;
+    }
+
+    // Scroll through the closet in the browser until the limit is reached or no new tiles appear
+    private void scrollListingTiles(ScrapingSummary summary, String closetUrl, int productCount,
+                                    Set<String> productUrls, Predicate<ListingTile> offerTile) {
+        // Create a new page; only the tile markup is needed, so skip images, fonts and trackers
+        PlaywrightConfig playwright = playwright();
+        Page page = playwright.createPage(closetContext());
+        if (settings.isBlockResources()) {
+            playwright.blockHeavyResources(page);
+        }
+        NetworkActivity network = NetworkActivity.attach(page);
+
+        try {
+            // Navigate to the closet page
+            log.info("Navigating to: {}", closetUrl);
+            long navigateStart = System.nanoTime();
+            page.navigate(closetUrl);
+
+            // Wait for the product grid to load
+            page.waitForSelector(TILE_SELECTOR);
+            summary.record(Phase.NAVIGATE, System.nanoTime() - navigateStart);
+
+            int emptyScrolls = 0;
+            int tileOffset = 0;
+            while (productUrls.size() < productCount) {
+                // Read only the tiles appended since the last pass, in one round trip
+                List<Map<String, Object>> newTiles = readTilesFrom(page, tileOffset);
+                tileOffset += newTiles.size();
+                int previousSize = productUrls.size();
+
+                // Process newly loaded products
+                // Failures in the callback, including an interrupted queue hand-off, end the scroll
+                for (Map<String, Object> tile : newTiles) {
+                    String href = (String) tile.get("href");
+                    if (href == null) {
+                        continue;
+                    }
+                    String productUrl = "https://poshmark.com" + href;
+                    String title = (String) tile.get("title");
+                    String price = (String) tile.get("price");
+                    String size = (String) tile.get("size");
+                    String availability = (String) tile.get("availability");
+                    offerTile.test(ListingTile.builder()
+                            .productId(ScraperUtility.extractProductIdFromUrl(productUrl))
+                            .productUrl(productUrl)
+                            .fingerprint(ScraperUtility.tileFingerprint(productUrl, title, price, size, availability))
+                            .title(title)
+                            .price(price)
+                            .size(size)
+                            .availability(availability)
+                            .build());
+                    if (productUrls.size() >= productCount) {
+                        break;
+                    }
+                }
+                // Check if we've reached our target or if no new products were found
+                if (productUrls.size() >= productCount) {
+                    break;
+                }
+                // A slow load can leave one scroll empty; only stop after several in a row
+                if (previousSize == productUrls.size()) {
+                    emptyScrolls++;
+                    if (emptyScrolls >= settings.getMaxEmptyScrolls()) {
+                        log.info("No new products found in the last {} scrolls. Ending scroll.", emptyScrolls);
+                        break;
+                    }
+                } else {
+                    emptyScrolls = 0;
+                }
 
-            // Scroll to load more products
-            page.evaluate("window.scrollTo(0, document.body.scrollHeight);");
+                // Scroll to load more products
+                long scrollStart = System.nanoTime();
+                page.evaluate("window.scrollTo(0, document.body.scrollHeight);");
 
-            // Wait for new content to load
-            page.waitForTimeout(2000);
+                // Wait for new content to load
+                waitForMoreTiles(page, network, tileOffset);
+                summary.record(Phase.SCROLL, System.nanoTime() - scrollStart);
 
+            }
+        } finally {
+            page.close();
         }
-        log.info("Found {} products after scrolling", productUrls.size());
-        return productUrls;
+    }
+
+    // Tiles at or after offset as {href, title, price, size} maps; href is null for cards without a link
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> readTilesFrom(Page page, int offset) {
+        return (List<Map<String, Object>>) page.evaluate(READ_TILES_SCRIPT, List.of(TILE_SELECTOR, offset));
+    }
+
+    // Return as soon as the grid grows past tileCount or the network goes quiet, bounded by the grace period
+    private void waitForMoreTiles(Page page, NetworkActivity network, int tileCount) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getScrollGraceMs());
+        while (System.nanoTime() < deadline) {
+            try {
+                page.waitForFunction("([selector, count]) => document.querySelectorAll(selector).length > count",
+                        List.of(TILE_SELECTOR, tileCount),
+                        new Page.WaitForFunctionOptions().setTimeout(SCROLL_POLL_MS).setPollingInterval(50));
+                return;
+            } catch (TimeoutError e) {
+                // No new tiles yet; network events were processed while waiting
+            }
+            if (network.isIdle(settings.getNetworkIdleMs())) {
+                return;
+            }
+        }
+        log.debug("Grid did not grow within the {} ms grace period ({} requests still in flight)",
+                settings.getScrollGraceMs(), network.getInFlight());
     }
 
 
@@ -101,81 +426,136 @@ public class PoshmarkScraperImpl implements PostmarkScraperService, AutoCloseabl
             return products;
         }
 
-        // Create a new page for each batch of products to avoid detection
-        Page page = null;
-        int processed = 0;
-        final int MAX_PRODUCTS_PER_SESSION = 10;
-
-        try {
+        BrowserPool pool = browserPool();
+        // Playwright calls block inside synchronized driver code, so render on platform threads
+        List<Future<Product>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(pool.getSize(),
+                Thread.ofPlatform().name("render-", 1).daemon().factory())) {
             for (String productUrl : productUrls) {
+                results.add(executor.submit(() -> renderProduct(pool, productUrl)));
+            }
+            for (Future<Product> result : results) {
                 try {
-                    // Create a new page every MAX_PRODUCTS_PER_SESSION products
-                    if (page == null || processed >= MAX_PRODUCTS_PER_SESSION) {
-                        if (page != null) {
-                            page.close();
-                        }
-                        page = playwrightConfig.createPage(context);
-                        processed = 0;
-                        // Add a longer delay when creating a new page
-                        ScraperUtility.randomSleep(5, 10);
+                    Product product = result.get();
+                    if (product != null) {
+                        products.add(product);
                     }
+                } catch (ExecutionException e) {
+                    log.error("Error in scrapeProducts: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Product rendering interrupted after {} products", products.size());
+        }
 
-                    log.info("Scraping product: {}", productUrl);
+        log.info("Successfully scraped {} out of {} products", products.size(), productUrls.size());
+        return products;
+    }
 
-                    // Random delay before navigation
-                    ScraperUtility.randomSleep(2, 4);
+    // Render one product page on a leased pool page; returns null if the page could not be scraped
+    private Product renderProduct(BrowserPool pool, String productUrl) throws InterruptedException {
+        try (BrowserPool.Lease lease = pool.lease()) {
+            Page page = lease.getPage();
+            // Wait for this host's next slot at the controller's current rate
+            renderPacer.await(productUrl);
+            try {
+                log.info("Scraping product: {}", productUrl);
 
-                    // Navigate to the product page
-                    page.navigate(productUrl, new Page.NavigateOptions()
-                            .setWaitUntil(WaitUntilState.DOMCONTENTLOADED));
+                // Navigate to the product page
+                long navigateStart = System.nanoTime();
+                Response response = page.navigate(productUrl, new Page.NavigateOptions()
+                        .setWaitUntil(WaitUntilState.DOMCONTENTLOADED));
+                rateController.onStatus(response != null ? response.status() : 0,
+                        response != null ? response.headerValue("retry-after") : null,
+                        System.nanoTime() - navigateStart);
 
-                    // Wait for the page to load
-                    page.waitForSelector("h1", new Page.WaitForSelectorOptions()
-                            .setTimeout(15000));
+                // Wait for the page to load
+                page.waitForSelector("h1", new Page.WaitForSelectorOptions()
+                        .setTimeout(15000));
 
-                    // Human-like scroll through the page
-                    humanScroll(page, 300, 800, 2);
+                // Human-like scroll through the page
+                humanScroll(page, 300, 800, 2);
 
-                    // Extract product details with null checks
-                    String title = "";
-                    try {
-                        ElementHandle titleElement = page.querySelector("h1");
-                        if (titleElement != null) {
-                            title = titleElement.textContent().trim();
-                        }
-                    } catch (Exception e) {
-                        log.error("Error extracting title for {}: {}", productUrl, e.getMessage());
+                // Extract product details with null checks
+                String title = "";
+                try {
+                    ElementHandle titleElement = page.querySelector("h1");
+                    if (titleElement != null) {
+                        title = titleElement.textContent().trim();
                     }
+                } catch (Exception e) {
+                    log.error("Error extracting title for {}: {}", productUrl, e.getMessage());
+                }
 
-                    // Add more product details here as needed
+                // Add more product details here as needed
 
-                    products.add(Product.builder()
-                            .productId(ScraperUtility.extractProductIdFromUrl(productUrl))
-                            .productTitle(title)
-                            .productUrl(productUrl)
-                            .build());
+                lease.pageServed();
 
-                    processed++;
+                return Product.builder()
+                        .productId(ScraperUtility.extractProductIdFromUrl(productUrl))
+                        .productTitle(title)
+                        .productUrl(productUrl)
+                        .build();
+            } catch (Exception e) {
+                log.error("Error processing product {}: {}", productUrl, e.getMessage());
+                // Give the next product a fresh context
+                lease.markBroken();
+                return null;
+            }
+        }
+    }
 
-                    // Random delay after processing
-                    ScraperUtility.randomSleep(2, 4);
+    // Export the run's metrics together with the shared fetch gauges
+    private void startMetrics(ClosetScrape run) {
+        rateController.registerGauges(run.getSummary());
+        documentFetcher.registerGauges(run.getSummary());
+        if (imageDownloader != null) {
+            imageDownloader.registerGauges(run.getSummary());
+        }
+        run.startMetrics(settings);
+    }
 
-                } catch (Exception e) {
-                    log.error("Error processing product {}: {}", productUrl, e.getMessage());
-                    // Continue with next product on error
-                }
+    // Runs listed over HTTP and fetched with Jsoup never need Playwright, so start it on first use
+    private PlaywrightConfig playwright() {
+        browserLock.lock();
+        try {
+            if (playwrightConfig == null) {
+                playwrightConfig = PlaywrightConfig.getInstance();
             }
-
-        } catch (Exception e) {
-            log.error("Error in scrapeProducts: {}", e.getMessage());
+            return playwrightConfig;
         } finally {
-            if (page != null) {
-                page.close();
+            browserLock.unlock();
+        }
+    }
+
+    // Browser used to scroll closets, launched the first time a closet has to be scrolled
+    private BrowserContext closetContext() {
+        browserLock.lock();
+        try {
+            if (context == null) {
+                browser = playwright().createBrowser(headless);
+                context = playwrightConfig.createBrowserContext(browser);
             }
+            return context;
+        } finally {
+            browserLock.unlock();
         }
+    }
 
-        log.info("Successfully scraped {} out of {} products", products.size(), productUrls.size());
-        return products;
+    // The pool is only needed for the Playwright product path, so launch it on first use
+    private BrowserPool browserPool() {
+        browserLock.lock();
+        try {
+            if (browserPool == null) {
+                browserPool = playwright().createBrowserPool(settings.getBrowserPoolSize(), headless,
+                        settings.getBrowserPagesPerContext());
+                log.info("Rendering product pages with a pool of {} browsers", browserPool.getSize());
+            }
+            return browserPool;
+        } finally {
+            browserLock.unlock();
+        }
     }
 
 
@@ -190,21 +570,30 @@ public class PoshmarkScraperImpl implements PostmarkScraperService, AutoCloseabl
     /**
      * Saves the summary report to a file
      */
-    private void saveSummaryToFile() {
+    private void saveSummaryToFile(ClosetScrape run) {
         try {
-            String summaryReport = summary.generateReport();
-            Path summaryPath = Paths.get("scraping_summary.txt");
+            String summaryReport = run.getSummary().generateReport();
+            Path summaryPath = run.getSummaryPath();
             Files.writeString(summaryPath, summaryReport);
             log.debug("Scraping summary saved to: {}", summaryPath.toAbsolutePath());
         } catch (Exception e) {
             log.error("Failed to save scraping summary: {}", e.getMessage());
+        } finally {
+            run.stopMetrics();
         }
     }
 
     @Override
     public void close() {
         log.info("Closing browser resources");
+        browserLock.lock();
         try {
+            if (imageDownloader != null) {
+                imageDownloader.close();
+            }
+            if (browserPool != null) {
+                browserPool.close();
+            }
             if (context != null) {
                 context.close();
             }
@@ -216,6 +605,8 @@ public class PoshmarkScraperImpl implements PostmarkScraperService, AutoCloseabl
             }
         } catch (Exception e) {
             log.warn("Error closing browser resources: {}", e.getMessage());
+        } finally {
+            browserLock.unlock();
         }
     }
 
@@ -226,70 +617,135 @@ public class PoshmarkScraperImpl implements PostmarkScraperService, AutoCloseabl
      * @return Product object with scraped details
      */
     public List<Product> scrapeWithJsoup(Set<String> productUrls) {
-        // Initialize summary
-        summary.setTotalProducts(productUrls.size());
-        summary.setTotalProducts(productUrls.size());
-        // Add random delay to avoid being blocked
-        ScraperUtility.randomSleep(2, 4);
         List<Product> products = Collections.synchronizedList(new ArrayList<>());
-        AtomicInteger counter = new AtomicInteger(1);
-        int totalProducts = productUrls.size();
+        scrapeWithJsoup(defaultRun, productUrls, productUrls.size(), products::add);
+        return products;
+    }
+
+    /**
+     * Scrapes product details using Jsoup, handing each product to the sink as soon as it is
+     * extracted instead of collecting them in memory
+     *
+     * @param productUrls URLs of the products to scrape
+     * @param sink        receives each scraped product; called from many threads
+     */
+    public void scrapeWithJsoup(Set<String> productUrls, Consumer<Product> sink) {
+        scrapeWithJsoup(defaultRun, productUrls, productUrls.size(), sink);
+    }
 
-        productUrls.parallelStream().forEach(productUrl -> {
+    // Scrape every URL from the source; a negative total means the count is not known up front
+    private void scrapeWithJsoup(ClosetScrape run, Iterable<String> productUrls, int expectedTotal,
+                                 Consumer<Product> sink) {
+        ScrapingSummary summary = run.getSummary();
+        ScrapeJournal journal = run.getJournal();
+        if (summary.getStartTime() == null) {
+            summary.start();
+        }
+        startMetrics(run);
+        AtomicInteger counter = new AtomicInteger(1);
+        AtomicInteger resumed = new AtomicInteger();
+        String totalProducts = expectedTotal >= 0 ? String.valueOf(expectedTotal) : "?";
+
+        // Products finished by an interrupted earlier run are replayed from the journal instead of fetched
+        Iterable<String> pendingUrls = journal == null ? productUrls : () -> StreamSupport
+                .stream(productUrls.spliterator(), false)
+                .filter(productUrl -> {
+                    Product previous = journal.completedProduct(productUrl);
+                    if (previous == null) {
+                        return true;
+                    }
+                    sink.accept(previous);
+                    summary.addSuccessfulProduct(productUrl);
+                    resumed.incrementAndGet();
+                    return false;
+                })
+                .iterator();
+
+        // Only this run's images are awaited, not those of other closets sharing the downloader
+        ImageDownloader.Run images = imageDownloader != null ? imageDownloader.newRun() : null;
+
+        // Each product runs on its own virtual thread; its requests pass through the closet's lane
+        run.getLane().forEach(pendingUrls, productUrl -> {
             int currentIndex = counter.getAndIncrement();
             log.info("Processing product {}/{}: {}", currentIndex, totalProducts, productUrl);
-            ScraperUtility.randomSleep(2, 4);
             try {
-                // Connect with headers to mimic a real browser request
-                Document doc = playwrightConfig.getJsoupDocument(productUrl);
-
-                // Extract product details
-                String productId = ScraperUtility.extractProductIdFromUrl(productUrl);
-                String productTitle = ScraperUtility.getElementText(doc, "h1.listing__title-container");
-                String brandName = ScraperUtility.getElementText(doc, "a.listing__brand");
-                String price = ScraperUtility.getElementText(doc, "span.m--l--2");
-                String discountedPrice = ScraperUtility.getElementText(doc, "p.h1").split(" ")[0];
-                String size = ScraperUtility.getElementText(doc, "button.size-selector__size-option");
-                List<String> colors = ScraperUtility.getListElementText(doc, "div.m--r--7:nth-child(2) > div");
-                String description = ScraperUtility.getElementText(doc, "div.listing__description");
-                List<String> categories = ScraperUtility.getListElementText(doc, "div.m--r--7:nth-child(1) > div");
-                List<String> imageUrls = ScraperUtility.getImageUrls(doc);
-                String sellerUsername = ScraperUtility.getElementText(doc, ".listing__header-container .d--fl > .d--fl a");
-                String listingDate = ScraperUtility.getElementText(doc, ".timestamp");
-
-                // Build and return product
-                Product product = Product.builder()
-                        .productId(ScraperUtility.extractProductIdFromUrl(productId))
-                        .productTitle(productTitle)
-                        .brandName(brandName)
-                        .price(price)
-                        .discountedPrice(discountedPrice)
-                        .size(size)
-                        .colors(colors)
-                        .categories(categories)
-                        .description(description)
-                        .productUrl(productUrl)
-                        .imageUrls(imageUrls)
-                        .sellerUsername(sellerUsername)
-                        .listingDate(listingDate)
-                        .build();
-                products.add(product);
+                Product product = scrapeProductWithJsoup(summary, run.getLane(), productUrl);
+                long writeStart = System.nanoTime();
+                sink.accept(product);
+                summary.record(Phase.WRITE, System.nanoTime() - writeStart);
                 summary.addSuccessfulProduct(productUrl);
+                if (imageDownloader != null) {
+                    imageDownloader.submit(product, images);
+                }
+                if (journal != null) {
+                    journal.recordCompleted(productUrl, product);
+                }
             } catch (Exception e) {
-                String errorMsg = String.format("Error processing product %s: %s", 
+                String errorMsg = String.format("Error processing product %s: %s",
                     productUrl, e.getMessage());
                 summary.addFailedProduct(productUrl, e.getMessage());
+                if (journal != null) {
+                    journal.recordFailed(productUrl, e.getMessage());
+                }
                 log.error("Error processing {}/{} ({}): {}",
                         currentIndex, totalProducts, productUrl, errorMsg);
             }
         });
-        
+        if (resumed.get() > 0) {
+            log.info("Resumed {} products from the journal without fetching them", resumed.get());
+        }
+
+        // Images download in the background; the run is only done once they are stored
+        if (imageDownloader != null) {
+            try {
+                images.awaitIdle();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting for image downloads");
+            }
+        }
+
         // Finalize summary
+        int processed = counter.get() - 1 + resumed.get();
+        summary.setTotalProducts(processed + summary.getCarriedForwardCount());
         summary.end();
-        saveSummaryToFile();
-        log.info("Completed processing {}/{} products", totalProducts, totalProducts);
-        log.info("Scraping summary has been saved to 'scraping_summary.txt'");
-        return products;
+        saveSummaryToFile(run);
+        log.info("Completed processing {}/{} products", processed, processed);
+        log.info("Scraping summary has been saved to '{}'", run.getSummaryPath());
+    }
+
+    // Fetch a single product page and extract its details, timing each phase
+    private Product scrapeProductWithJsoup(ScrapingSummary summary, FetchEngine.Lane lane, String productUrl)
+            throws IOException {
+        PageResponse response = documentFetcher.fetch(productUrl, summary, lane);
+
+        // Extract while parsing, without building the whole page, when streaming is enabled
+        if (streamingExtractor != null) {
+            long extractStart = System.nanoTime();
+            Product product = streamingExtractor.extract(response, productUrl);
+            summary.record(Phase.EXTRACT, System.nanoTime() - extractStart);
+            return product;
+        }
+
+        long parseStart = System.nanoTime();
+        Document doc = documentFetcher.parse(response, productUrl);
+        long extractStart = System.nanoTime();
+        summary.record(Phase.PARSE, extractStart - parseStart);
+        try {
+            // Prefer the server state embedded in the page; the selectors below are the fallback
+            if (settings.isEmbeddedState()) {
+                Product product = embeddedStateExtractor.extract(doc, productUrl);
+                if (product != null) {
+                    return product;
+                }
+                log.debug("No embedded listing state in {}; falling back to selectors", productUrl);
+            }
+
+            // Extract product details in one pass with the precompiled selectors
+            return productExtractor.extract(doc, productUrl);
+        } finally {
+            summary.record(Phase.EXTRACT, System.nanoTime() - extractStart);
+        }
     }
 
 
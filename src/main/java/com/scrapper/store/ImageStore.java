@@ -0,0 +1,170 @@
+package com.scrapper.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content-addressed image store. Every file is named after the SHA-256 of its bytes and kept
+ * under a two-character fan-out directory ({@code ab/abcdef....jpg}), so the same picture
+ * reached through different URLs is stored once. The extension is read from the bytes too,
+ * so a name depends on nothing but the content. {@code urls.tsv} maps every downloaded URL
+ * to its file, which lets later runs skip URLs they already have.
+ */
+@Slf4j
+public class ImageStore implements Closeable {
+    private static final String URL_INDEX = "urls.tsv";
+
+    private final Path directory;
+    private final Path tempDirectory;
+    private final Map<String, String> filesByUrl;
+    private final ReentrantLock indexLock = new ReentrantLock();
+    private final BufferedWriter indexWriter;
+
+    /**
+     * Outcome of storing one download.
+     *
+     * @param file      stored file, relative to the store directory
+     * @param duplicate true if identical bytes were already stored and the download was discarded
+     */
+    public record Stored(String file, boolean duplicate) {
+    }
+
+    private ImageStore(Path directory, Map<String, String> filesByUrl) throws IOException {
+        this.directory = directory;
+        this.tempDirectory = Files.createDirectories(directory.resolve(".tmp"));
+        this.filesByUrl = filesByUrl;
+        this.indexWriter = Files.newBufferedWriter(directory.resolve(URL_INDEX), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // Open the store in a directory, loading the URLs downloaded by earlier runs
+    public static ImageStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, String> filesByUrl = new ConcurrentHashMap<>();
+        Path index = directory.resolve(URL_INDEX);
+        if (Files.exists(index)) {
+            List<String> lines = Files.readAllLines(index, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                int tab = line.indexOf('\t');
+                if (tab > 0 && Files.exists(directory.resolve(line.substring(tab + 1)))) {
+                    filesByUrl.put(line.substring(0, tab), line.substring(tab + 1));
+                }
+            }
+        }
+        log.info("Opened image store {} with {} known URLs", directory, filesByUrl.size());
+        return new ImageStore(directory, filesByUrl);
+    }
+
+    // Stored file for a URL downloaded before, relative to the store directory, or null
+    public String fileFor(String url) {
+        return filesByUrl.get(url);
+    }
+
+    // Scratch file for a download in progress; hand it to store() once complete
+    public Path newTempFile() throws IOException {
+        return Files.createTempFile(tempDirectory, "download-", ".part");
+    }
+
+    /**
+     * Move a completed download to its content address, or drop it if those bytes are already stored.
+     *
+     * @param url      URL the bytes came from
+     * @param download temp file holding the bytes
+     * @param sha256   hex SHA-256 of the bytes
+     */
+    public Stored store(String url, Path download, String sha256) throws IOException {
+        String file = sha256.substring(0, 2) + "/" + sha256 + extensionOf(download);
+        Path target = directory.resolve(file);
+        boolean duplicate = Files.exists(target);
+        if (duplicate) {
+            Files.delete(download);
+        } else {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(download, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Lost a race with another download of the same bytes
+                if (!Files.exists(target)) {
+                    throw e;
+                }
+                Files.deleteIfExists(download);
+                duplicate = true;
+            }
+        }
+        remember(url, file);
+        return new Stored(file, duplicate);
+    }
+
+    // Extension for the image format the file starts with, or empty if it is not one we know
+    static String extensionOf(Path file) throws IOException {
+        byte[] header = new byte[12];
+        int length;
+        try (InputStream in = Files.newInputStream(file)) {
+            length = in.readNBytes(header, 0, header.length);
+        }
+        if (length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return ".jpg";
+        }
+        if (length >= 4 && (header[0] & 0xFF) == 0x89 && startsWith(header, 1, "PNG")) {
+            return ".png";
+        }
+        if (length >= 4 && startsWith(header, 0, "GIF8")) {
+            return ".gif";
+        }
+        if (length >= 12 && startsWith(header, 0, "RIFF") && startsWith(header, 8, "WEBP")) {
+            return ".webp";
+        }
+        if (length >= 12 && startsWith(header, 4, "ftyp") && (startsWith(header, 8, "avif") || startsWith(header, 8, "avis"))) {
+            return ".avif";
+        }
+        return "";
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, String ascii) {
+        for (int i = 0; i < ascii.length(); i++) {
+            if (bytes[offset + i] != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void remember(String url, String file) throws IOException {
+        filesByUrl.put(url, file);
+        indexLock.lock();
+        try {
+            indexWriter.write(url + "\t" + file);
+            indexWriter.newLine();
+            indexWriter.flush();
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        indexLock.lock();
+        try {
+            indexWriter.close();
+        } finally {
+            indexLock.unlock();
+        }
+    }
+}
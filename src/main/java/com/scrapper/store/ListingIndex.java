@@ -0,0 +1,124 @@
+package com.scrapper.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scrapper.model.ListingTile;
+import com.scrapper.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent record of the listings seen in one closet, used for delta crawls.
+ * Every entry keeps the tile fingerprint from the last successful scrape together with the
+ * extracted product, so listings whose tile has not changed can be carried forward without
+ * fetching their detail page again.
+ */
+@Slf4j
+public class ListingIndex {
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Path path;
+    private final Map<String, Entry> entries;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String fingerprint;
+        private long lastSeen;      // Epoch millis of the last run that saw this listing
+        private Product product;
+    }
+
+    private ListingIndex(Path path, Map<String, Entry> entries) {
+        this.path = path;
+        this.entries = entries;
+    }
+
+    // Load the index for a closet, or start an empty one if none exists yet
+    public static ListingIndex open(Path directory, String closetUrl) throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(closetKey(closetUrl) + ".json");
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (Files.exists(path)) {
+            entries.putAll(objectMapper.readValue(path.toFile(), new TypeReference<Map<String, Entry>>() {
+            }));
+        }
+        log.info("Loaded listing index {} with {} entries", path, entries.size());
+        return new ListingIndex(path, entries);
+    }
+
+    /**
+     * Returns the stored product when the tile looks exactly as it did on the last run.
+     *
+     * @param tile tile seen during this run
+     * @return previous product, or null if the listing is new or has changed
+     */
+    public Product findUnchanged(ListingTile tile) {
+        Entry entry = entries.get(tile.getProductId());
+        if (entry == null) {
+            return null;
+        }
+        // Still listed, even if it changed and its new version fails to scrape
+        entry.setLastSeen(System.currentTimeMillis());
+        if (entry.getProduct() == null || !entry.getFingerprint().equals(tile.getFingerprint())) {
+            return null;
+        }
+        return entry.getProduct();
+    }
+
+    // Remember the product freshly scraped for this tile
+    public void record(ListingTile tile, Product product) {
+        entries.put(tile.getProductId(), new Entry(tile.getFingerprint(), System.currentTimeMillis(), product));
+    }
+
+    // Drop listings no run has seen since the given time, i.e. ones gone from a closet that was listed in full
+    public void pruneNotSeenSince(long epochMillis) {
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.getLastSeen() < epochMillis);
+        if (entries.size() < before) {
+            log.info("Pruned {} listings no longer in the closet from {}", before - entries.size(), path);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Write the index to disk, replacing the previous version atomically
+    public void save() throws IOException {
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        objectMapper.writeValue(temp.toFile(), entries);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Saved listing index {} with {} entries", path, entries.size());
+    }
+
+    // File-safe name for a closet: the username plus a checksum of the full URL (filters included)
+    public static String closetKey(String closetUrl) {
+        String name = "closet";
+        try {
+            String[] segments = URI.create(closetUrl).getPath().split("/");
+            if (segments.length > 0 && !segments[segments.length - 1].isBlank()) {
+                name = segments[segments.length - 1];
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Could not parse closet URL: {}", closetUrl);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(closetUrl.getBytes(StandardCharsets.UTF_8));
+        return name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Long.toHexString(crc.getValue());
+    }
+}
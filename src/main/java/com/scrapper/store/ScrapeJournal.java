@@ -0,0 +1,257 @@
+package com.scrapper.store;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scrapper.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only journal of a closet scrape, one JSON record per line.
+ * Queued URLs, completed products and failures are buffered and appended in batches,
+ * each batch forced to disk, so a crashed run can be resumed by replaying the journal.
+ * A background task also flushes whatever is buffered every two seconds, so a slow run
+ * never holds records in memory for long. A torn last line from a crash is ignored on replay.
+ */
+@Slf4j
+public class ScrapeJournal implements AutoCloseable {
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private static final long FLUSH_INTERVAL_SECONDS = 2;
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("journal-flush").daemon().factory());
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int batchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<String> pending = new ArrayList<>();
+    private final ScheduledFuture<?> periodicFlush;
+    private boolean closed;
+
+    // State replayed from an earlier run
+    private final Map<String, Product> completed = new ConcurrentHashMap<>();
+    private final Set<String> queuedUrls = new LinkedHashSet<>();
+    private final Set<String> failedUrls = new LinkedHashSet<>();
+    private boolean listingComplete;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Record {
+        private String type;       // queued, listed, done or failed
+        private String url;
+        private Product product;
+        private String error;
+    }
+
+    private ScrapeJournal(Path path, int batchSize) throws IOException {
+        this.path = path;
+        this.batchSize = Math.max(1, batchSize);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // Position at the end so every write appends
+        channel.position(channel.size());
+        this.periodicFlush = flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS,
+                FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens the journal for a closet.
+     *
+     * @param directory journal directory
+     * @param closetUrl closet being scraped
+     * @param resume    replay an existing journal instead of starting a new one
+     * @param batchSize records buffered before they are forced to disk
+     */
+    public static ScrapeJournal open(Path directory, String closetUrl, boolean resume, int batchSize)
+            throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(ListingIndex.closetKey(closetUrl) + ".ndjson");
+        if (!resume) {
+            Files.deleteIfExists(path);
+        }
+        ScrapeJournal journal = new ScrapeJournal(path, batchSize);
+        if (resume) {
+            journal.replay();
+        }
+        return journal;
+    }
+
+    private void replay() throws IOException {
+        int records = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Record record;
+                try {
+                    record = objectMapper.readValue(line, Record.class);
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable journal line {}: {}", records + 1, e.getMessage());
+                    continue;
+                }
+                records++;
+                switch (record.getType()) {
+                    case "queued" -> queuedUrls.add(record.getUrl());
+                    case "listed" -> listingComplete = true;
+                    case "done" -> {
+                        completed.put(record.getUrl(), record.getProduct());
+                        failedUrls.remove(record.getUrl());
+                    }
+                    case "failed" -> failedUrls.add(record.getUrl());
+                    default -> log.warn("Unknown journal record type: {}", record.getType());
+                }
+            }
+        }
+        terminateTornLine();
+        log.info("Replayed {} journal records from {}: {} queued, {} completed, {} failed{}",
+                records, path, queuedUrls.size(), completed.size(), failedUrls.size(),
+                listingComplete ? ", listing complete" : "");
+    }
+
+    // A crash can leave half a record at the end; start new records on a fresh line
+    private void terminateTornLine() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        if (last.get(0) != '\n') {
+            channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+        }
+    }
+
+    // Product completed by an earlier run, or null if the URL still needs to be scraped
+    public Product completedProduct(String url) {
+        return completed.get(url);
+    }
+
+    public int getCompletedCount() {
+        return completed.size();
+    }
+
+    // True when an earlier run finished enumerating the closet, so scrolling can be skipped
+    public boolean isListingComplete() {
+        return listingComplete;
+    }
+
+    // URLs to scrape on resume: the ones that failed last time first, then the rest in the order they were queued
+    public Set<String> getQueuedUrls() {
+        Set<String> urls = new LinkedHashSet<>(failedUrls);
+        urls.addAll(queuedUrls);
+        return Collections.unmodifiableSet(urls);
+    }
+
+    public int getFailedCount() {
+        return failedUrls.size();
+    }
+
+    public void recordQueued(String url) {
+        append(new Record("queued", url, null, null));
+    }
+
+    public void recordListingComplete() {
+        append(new Record("listed", null, null, null));
+        flush();
+    }
+
+    public void recordCompleted(String url, Product product) {
+        append(new Record("done", url, product, null));
+    }
+
+    public void recordFailed(String url, String error) {
+        append(new Record("failed", url, null, error));
+    }
+
+    private void append(Record record) {
+        String line;
+        try {
+            line = objectMapper.writeValueAsString(record) + "\n";
+        } catch (IOException e) {
+            log.warn("Could not serialize journal record for {}: {}", record.getUrl(), e.getMessage());
+            return;
+        }
+        lock.lock();
+        try {
+            pending.add(line);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Append buffered records and force them to disk
+    public void flush() {
+        lock.lock();
+        try {
+            if (pending.isEmpty() || closed) {
+                return;
+            }
+            StringBuilder batch = new StringBuilder();
+            pending.forEach(batch::append);
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            pending.clear();
+        } catch (IOException e) {
+            log.error("Failed to write scrape journal {}: {}", path, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The run finished and its output is written, so the journal is no longer needed
+    public void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void close() {
+        periodicFlush.cancel(false);
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            flush();
+            closed = true;
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Error closing scrape journal: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.scrapper.util;
+
+import com.scrapper.model.Product;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Streams products as CSV rows. Fields are escaped straight into the output buffer,
+ * so no intermediate row strings are built.
+ */
+public class CsvProductWriter extends ProductWriter {
+    static final String HEADER = "product_id,product_title,brand_name,price,discounted_price,size,color,category,description,product_url,image_urls,seller_username,listing_date\n";
+
+    private final BufferedWriter writer;
+
+    public CsvProductWriter(Path path) throws IOException {
+        super(path);
+        this.writer = Files.newBufferedWriter(path);
+        writer.write(HEADER);
+    }
+
+    @Override
+    protected void writeProduct(Product product) throws IOException {
+        writeField(product.getProductId());
+        writer.write(',');
+        writeField(product.getProductTitle());
+        writer.write(',');
+        writeField(product.getBrandName());
+        writer.write(',');
+        writeField(product.getPrice());
+        writer.write(',');
+        writeField(product.getDiscountedPrice());
+        writer.write(',');
+        writeField(product.getSize());
+        writer.write(',');
+        writeListField(product.getColors());
+        writer.write(',');
+        writeListField(product.getCategories());
+        writer.write(',');
+        writeField(product.getDescription());
+        writer.write(',');
+        writeField(product.getProductUrl());
+        writer.write(',');
+        writeListField(product.getImageUrls());
+        writer.write(',');
+        writeField(product.getSellerUsername());
+        writer.write(',');
+        writeField(product.getListingDate());
+        writer.write('\n');
+    }
+
+    // CSV carries no metadata; the trailer only flushes the remaining rows
+    @Override
+    protected void writeTrailer(double executionTimeSeconds) throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeField(String field) throws IOException {
+        if (field == null) {
+            return;
+        }
+        if (needsQuoting(field)) {
+            writer.write('"');
+            writeEscaped(writer, field);
+            writer.write('"');
+        } else {
+            writer.write(field);
+        }
+    }
+
+    // Write list values separated by '|' as a single CSV field
+    private void writeListField(List<String> values) throws IOException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        boolean quote = false;
+        for (String value : values) {
+            if (value != null && needsQuoting(value)) {
+                quote = true;
+                break;
+            }
+        }
+        if (quote) {
+            writer.write('"');
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write('|');
+            }
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (quote) {
+                writeEscaped(writer, value);
+            } else {
+                writer.write(value);
+            }
+        }
+        if (quote) {
+            writer.write('"');
+        }
+    }
+
+    private static boolean needsQuoting(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Escape double quotes by doubling them
+    private static void writeEscaped(Writer writer, String field) throws IOException {
+        int start = 0;
+        for (int i = 0; i < field.length(); i++) {
+            if (field.charAt(i) == '"') {
+                writer.write(field, start, i - start + 1);
+                writer.write('"');
+                start = i + 1;
+            }
+        }
+        writer.write(field, start, field.length() - start);
+    }
+}
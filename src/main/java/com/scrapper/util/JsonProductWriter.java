@@ -0,0 +1,76 @@
+package com.scrapper.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scrapper.model.Product;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Streams products through a Jackson {@link JsonGenerator}.
+ * In JSON mode the file is one object holding a "products" array followed by a "metadata"
+ * trailer; in NDJSON mode every product is its own line and the last line holds the metadata.
+ */
+public class JsonProductWriter extends ProductWriter {
+    private static final int FLUSH_EVERY = 100;
+
+    private final JsonGenerator generator;
+    private final boolean newlineDelimited;
+    private final String sourceUrl;
+    private final Instant scrapeDate = Instant.now();
+
+    public JsonProductWriter(ObjectMapper objectMapper, Path path, String sourceUrl,
+                             boolean newlineDelimited) throws IOException {
+        super(path);
+        this.sourceUrl = sourceUrl;
+        this.newlineDelimited = newlineDelimited;
+        this.generator = objectMapper.createGenerator(Files.newBufferedWriter(path));
+        if (newlineDelimited) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        } else {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("products");
+        }
+    }
+
+    @Override
+    protected void writeProduct(Product product) throws IOException {
+        generator.writeObject(product);
+        if (getCount() % FLUSH_EVERY == FLUSH_EVERY - 1) {
+            generator.flush();
+        }
+    }
+
+    @Override
+    protected void writeTrailer(double executionTimeSeconds) throws IOException {
+        if (newlineDelimited) {
+            generator.writeStartObject();
+            writeMetadata(executionTimeSeconds);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } else {
+            generator.writeEndArray();
+            writeMetadata(executionTimeSeconds);
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeMetadata(double executionTimeSeconds) throws IOException {
+        generator.writeObjectFieldStart("metadata");
+        generator.writeStringField("source_url", sourceUrl);
+        generator.writeNumberField("total_products", getCount());
+        generator.writeStringField("scrape_date", scrapeDate.toString());
+        generator.writeNumberField("execution_time_seconds", executionTimeSeconds);
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,177 @@
+package com.scrapper.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scrapper.catalog.CatalogReader;
+import com.scrapper.catalog.CatalogRecord;
+import com.scrapper.model.Product;
+import lombok.experimental.UtilityClass;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads products back from files written by {@link FileUtil}. The format is taken from the
+ * file extension, and products are handed to the consumer one at a time, so a file is never
+ * held in memory whole.
+ */
+@UtilityClass
+public class ProductReader {
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    // Stream every product in the file to the consumer; returns how many were read
+    public static int read(Path path, Consumer<Product> consumer) throws IOException {
+        String name = path.getFileName().toString();
+        String format = name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+        return switch (format) {
+            case "json" -> readJson(path, consumer);
+            case "ndjson" -> readNdjson(path, consumer);
+            case "csv" -> readCsv(path, consumer);
+            case "bin" -> readCatalog(path, consumer);
+            default -> throw new IOException("Unsupported product file: " + path);
+        };
+    }
+
+    // Whether the file has an extension this reader understands
+    public static boolean isProductFile(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && FileUtil.SUPPORTED_FORMATS.contains(name.substring(dot + 1).toLowerCase());
+    }
+
+    private static int readJson(Path path, Consumer<Product> consumer) throws IOException {
+        int count = 0;
+        try (JsonParser parser = objectMapper.createParser(path.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Not a product file: " + path);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("products") && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consumer.accept(objectMapper.readValue(parser, Product.class));
+                        count++;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int readNdjson(Path path, Consumer<Product> consumer) throws IOException {
+        int count = 0;
+        try (MappingIterator<JsonNode> lines = objectMapper.readerFor(JsonNode.class).readValues(path.toFile())) {
+            while (lines.hasNext()) {
+                JsonNode line = lines.next();
+                // The last line holds the run metadata
+                if (line.has("metadata")) {
+                    continue;
+                }
+                consumer.accept(objectMapper.treeToValue(line, Product.class));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int readCatalog(Path path, Consumer<Product> consumer) throws IOException {
+        int count = 0;
+        try (CatalogReader reader = CatalogReader.open(path)) {
+            for (CatalogRecord record : reader) {
+                consumer.accept(record.toProduct());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Columns follow CsvProductWriter.HEADER; list fields are joined with '|'
+    private static int readCsv(Path path, Consumer<Product> consumer) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            List<String> row = readCsvRow(reader);
+            if (row == null || !row.get(0).equals("product_id")) {
+                throw new IOException("Not a product file: " + path);
+            }
+            while ((row = readCsvRow(reader)) != null) {
+                if (row.size() < 13) {
+                    continue;
+                }
+                consumer.accept(Product.builder()
+                        .productId(row.get(0))
+                        .productTitle(row.get(1))
+                        .brandName(row.get(2))
+                        .price(row.get(3))
+                        .discountedPrice(row.get(4))
+                        .size(row.get(5))
+                        .colors(splitList(row.get(6)))
+                        .categories(splitList(row.get(7)))
+                        .description(row.get(8))
+                        .productUrl(row.get(9))
+                        .imageUrls(splitList(row.get(10)))
+                        .sellerUsername(row.get(11))
+                        .listingDate(row.get(12))
+                        .build());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // One CSV record, which may span lines inside quotes; null at end of input
+    private static List<String> readCsvRow(BufferedReader reader) throws IOException {
+        List<String> fields = new ArrayList<>(13);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static List<String> splitList(String field) {
+        return field.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(field.split("\\|", -1)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.scrapper.util;
+
+import com.scrapper.model.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Writes products to an output file one at a time as they are scraped.
+ * Writes are serialized with a lock so many fetch threads can share one writer.
+ * Run metadata is written as a trailer by {@link #finish(double)}.
+ */
+public abstract class ProductWriter implements Consumer<Product>, AutoCloseable {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Path path;
+    private int count;
+    private boolean finished;
+
+    protected ProductWriter(Path path) {
+        this.path = path;
+    }
+
+    // Append a single product to the output
+    public void write(Product product) throws IOException {
+        lock.lock();
+        try {
+            writeProduct(product);
+            count++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void accept(Product product) {
+        try {
+            write(product);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write product " + product.getProductId(), e);
+        }
+    }
+
+    // Write the trailer record with run metadata and close the file
+    public void finish(double executionTimeSeconds) throws IOException {
+        lock.lock();
+        try {
+            if (!finished) {
+                finished = true;
+                writeTrailer(executionTimeSeconds);
+            }
+        } finally {
+            lock.unlock();
+            close();
+        }
+    }
+
+    public int getCount() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    protected abstract void writeProduct(Product product) throws IOException;
+
+    protected abstract void writeTrailer(double executionTimeSeconds) throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+}
@@ -4,6 +4,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
 
@@ -21,6 +25,24 @@ public class ScraperUtility {
         return "unknown";
     }
 
+    // Stable short hash of tile text, ignoring differences in whitespace
+    public static String fingerprint(String text) {
+        String normalized = text == null ? "" : text.trim().replaceAll("\\s+", " ");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Fingerprint of a closet tile from the fields the browser and HTTP listing paths read the same way
+    public static String tileFingerprint(String productUrl, String title, String price, String size,
+                                         String availability) {
+        return fingerprint(String.join("|", Objects.toString(productUrl, ""), Objects.toString(title, ""),
+                Objects.toString(price, ""), Objects.toString(size, ""), Objects.toString(availability, "")));
+    }
+
     // Add a random delay to avoid being blocked
     public static void randomSleep(int minSeconds, int maxSeconds) {
         int min = minSeconds * 1000;
@@ -36,12 +58,12 @@ public class ScraperUtility {
 
     // Extract text from an HTML Document
     public static String getElementText(Document element, String selector) {
-        try {
-            return Objects.requireNonNull(element.selectFirst(selector)).text();
-        } catch (Exception e) {
-            log.warn("Could not extract text from document: {}", e.getMessage());
+        Element match = element.selectFirst(selector);
+        if (match == null) {
+            log.debug("No element matches selector: {}", selector);
             return "";
         }
+        return match.text();
     }
 
     // Extract text from an HTML element